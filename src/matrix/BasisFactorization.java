@@ -0,0 +1,31 @@
+package matrix;
+
+/**
+ * Representation of the inverse of a basis B used by the revised simplex method.
+ * The positions are those of the columns of B: ftran returns B^-1 a and btran
+ * returns c B^-1, both indexed like the columns of B.
+ */
+public interface BasisFactorization
+{
+	// computes a new representation from the square matrix B, forgetting the updates
+	void factorize(Matrix B);
+
+	// FTRAN: replaces a by B^-1 a
+	void ftran(double[] a);
+
+	// BTRAN: replaces c by c B^-1
+	void btran(double[] c);
+
+	/** Replaces the column of position p of B by the entering column a
+	 * @param
+	 * p - the position of the leaving column
+	 * d - B^-1 a, as returned by the last call to ftran
+	 */
+	void update(int p, double[] d);
+
+	// returns the number of updates since the last factorization
+	int getNbUpdates();
+
+	// returns true if the accuracy of the representation has drifted and B should be factorized again
+	boolean needsRefactorization();
+}
@@ -0,0 +1,215 @@
+package matrix;
+
+import java.util.ArrayList;
+
+/**
+ * Product form of the inverse of a basis: B^-1 = E_k ... E_2 E_1 where each
+ * E_t is an elementary (eta) matrix, identity except for one column.
+ * Only the non null entries of the eta columns are kept.
+ */
+public class EtaFile implements BasisFactorization
+{
+	private ArrayList<Eta> etas = new ArrayList<Eta>();
+	private int dimension;
+	private int nbFactorEtas; // etas computed by factorize, the following ones are updates
+	private int[] position; // after factorize, the row i of the product of the etas is the column position[i] of B
+
+	// one elementary matrix: the column row of the identity is replaced,
+	// it comes from a pivot on d[row] of the column d = B^-1 a
+	private static class Eta
+	{
+		int row;
+		double pivot;      // d[row]
+		int[] index;       // rows i != row with d[i] != 0
+		double[] value;    // the corresponding d[i]
+	}
+
+	//----------------------------------------------//
+	// CONSTRUCTOR //
+	//----------------------------------------------//
+	/** Constructor EtaFile, represents the identity
+	 * @param
+	 * dimension - number of rows of the basis
+	 */
+	public EtaFile(int dimension)
+	{
+		this.dimension = dimension;
+	}
+
+	// forgets every eta, the represented inverse becomes the identity
+	public void clear()
+	{
+		etas.clear();
+		nbFactorEtas = 0;
+		position = null;
+	}
+
+	// returns the number of eta matrices
+	public int size()
+	{
+		return etas.size();
+	}
+
+	public int getDimension()
+	{
+		return dimension;
+	}
+
+	// returns the number of non null entries stored
+	public int getNbNonZeros()
+	{
+		int nnz = 0;
+		for (Eta eta : etas) nnz += eta.index.length + 1;
+		return nnz;
+	}
+
+	/** Gauss-Jordan elimination in product form: the columns of B are pivoted one
+	 * after the other, each on the free row where it is the greatest in absolute value.
+	 * The unit columns already in place give no eta.
+	 */
+	public void factorize(Matrix B)
+	{
+		boolean[] used = new boolean[dimension];
+		int[] pos = new int[dimension];
+		double[] d = new double[dimension];
+
+		clear();
+		// the unit columns are placed first, on the row of their 1
+		for (int j=0; j<dimension; j++) pos[j] = -1;
+		boolean[] placed = new boolean[dimension];
+		for (int j=0; j<dimension; j++)
+		{
+			int one = unitRow(B, j);
+			if (one >= 0 && !used[one])
+			{
+				used[one] = true;
+				pos[one] = j;
+				placed[j] = true;
+			}
+		}
+		for (int j=0; j<dimension; j++)
+		{
+			if (placed[j]) continue;
+			for (int i=0; i<dimension; i++) d[i] = B.getValue(i,j);
+			ftran(d);
+			int p = -1;
+			for (int i=0; i<dimension; i++)
+				if (!used[i] && (p == -1 || Math.abs(d[i]) > Math.abs(d[p]))) p = i;
+			if (p == -1 || d[p] == 0) throw new ArithmeticException("The matrix is singular");
+			addEta(p, d);
+			used[p] = true;
+			pos[p] = j;
+		}
+		nbFactorEtas = etas.size();
+		position = pos;
+	}
+
+	// returns i if the column j of B is the i-th column of the identity, -1 otherwise
+	private static int unitRow(Matrix B, int j)
+	{
+		int one = -1;
+		for (int i=0; i<B.getNbRows(); i++)
+		{
+			double v = B.getValue(i,j);
+			if (v == 0) continue;
+			if (v != 1 || one != -1) return -1;
+			one = i;
+		}
+		return one;
+	}
+
+	/** Adds the eta matrix of a pivot
+	 * @param
+	 * row - the pivot row
+	 * d - the column B^-1 a of the entering variable, computed with ftran before the update
+	 */
+	public void addEta(int row, double[] d)
+	{
+		Eta eta = new Eta();
+		int nnz = 0;
+		for (int i=0; i<dimension; i++)
+			if (i != row && d[i] != 0) nnz++;
+		eta.row = row;
+		eta.pivot = d[row];
+		eta.index = new int[nnz];
+		eta.value = new double[nnz];
+		nnz = 0;
+		for (int i=0; i<dimension; i++)
+			if (i != row && d[i] != 0)
+			{
+				eta.index[nnz] = i;
+				eta.value[nnz] = d[i];
+				nnz++;
+			}
+		etas.add(eta);
+	}
+
+	public void update(int p, double[] d)
+	{
+		addEta(p, d);
+	}
+
+	public int getNbUpdates()
+	{
+		return etas.size() - nbFactorEtas;
+	}
+
+	// the product form has no cheap accuracy test, only the schedule triggers a refactorization
+	public boolean needsRefactorization()
+	{
+		return false;
+	}
+
+	// FTRAN: replaces a by B^-1 a
+	public void ftran(double[] a)
+	{
+		apply(a, 0, nbFactorEtas);
+		if (position != null) permute(a, false);
+		apply(a, nbFactorEtas, etas.size());
+	}
+
+	// BTRAN: replaces c by c B^-1
+	public void btran(double[] c)
+	{
+		applyTranspose(c, nbFactorEtas, etas.size());
+		if (position != null) permute(c, true);
+		applyTranspose(c, 0, nbFactorEtas);
+	}
+
+	// a := E_to-1 ... E_from a
+	private void apply(double[] a, int from, int to)
+	{
+		for (int t=from; t<to; t++)
+		{
+			Eta eta = etas.get(t);
+			double xr = a[eta.row];
+			if (xr == 0) continue;
+			xr /= eta.pivot;
+			a[eta.row] = xr;
+			for (int k=0; k<eta.index.length; k++) a[eta.index[k]] -= eta.value[k] * xr;
+		}
+	}
+
+	// c := c E_to-1 ... E_from
+	private void applyTranspose(double[] c, int from, int to)
+	{
+		for (int t=to-1; t>=from; t--)
+		{
+			Eta eta = etas.get(t);
+			double s = c[eta.row];
+			for (int k=0; k<eta.index.length; k++) s -= eta.value[k] * c[eta.index[k]];
+			c[eta.row] = s / eta.pivot;
+		}
+	}
+
+	// moves the row i to position[i], or back if inverse is true
+	private void permute(double[] v, boolean inverse)
+	{
+		double[] w = v.clone();
+		for (int i=0; i<dimension; i++)
+		{
+			if (inverse) v[i] = w[position[i]];
+			else v[position[i]] = w[i];
+		}
+	}
+}
@@ -0,0 +1,224 @@
+package matrix;
+
+/**
+ * LU decomposition with partial pivoting of a square matrix: P A = L U.
+ * L is unit lower triangular, U is upper triangular, both are stored in lu.
+ * The factorization costs O(n^3), each solve O(n^2).
+ */
+public class LUDecomposition
+{
+	private double[][] lu;
+	private int[] piv; // piv[i] is the row of A that is at row i of P A
+	private int pivSign;
+	private int n;
+	private double tolerance;
+
+	//----------------------------------------------//
+	// CONSTRUCTOR //
+	//----------------------------------------------//
+	/** Factorizes the square matrix a
+	 * @param a the matrix to factorize, it is not modified
+	 */
+	public LUDecomposition(Matrix a)
+	{
+		if (a.getNbRows() != a.getNbColumns())
+			throw new IllegalArgumentException("The matrix must be square");
+		this.n = a.getNbRows();
+		this.lu = new double[n][n];
+		this.piv = new int[n];
+		this.pivSign = 1;
+		double max = 0;
+		for (int i=0; i<n; i++)
+		{
+			piv[i] = i;
+			for (int j=0; j<n; j++)
+			{
+				lu[i][j] = a.getValue(i,j);
+				max = Math.max(max, Math.abs(lu[i][j]));
+			}
+		}
+		// a pivot smaller than this, relatively to the greatest coefficient, is considered null
+		this.tolerance = n * max * 1E-14;
+		decompose();
+	}
+
+	// Gaussian elimination with partial pivoting, row oriented
+	private void decompose()
+	{
+		for (int k=0; k<n; k++)
+		{
+			int p = k;
+			for (int i=k+1; i<n; i++)
+				if (Math.abs(lu[i][k]) > Math.abs(lu[p][k])) p = i;
+			if (p != k)
+			{
+				double[] row = lu[p]; lu[p] = lu[k]; lu[k] = row;
+				int t = piv[p]; piv[p] = piv[k]; piv[k] = t;
+				pivSign = -pivSign;
+			}
+			double pivot = lu[k][k];
+			if (Math.abs(pivot) <= tolerance) continue;
+			double[] rowK = lu[k];
+			for (int i=k+1; i<n; i++)
+			{
+				double[] rowI = lu[i];
+				double f = rowI[k] / pivot;
+				rowI[k] = f;
+				if (f == 0) continue;
+				for (int j=k+1; j<n; j++) rowI[j] -= f * rowK[j];
+			}
+		}
+	}
+
+	//----------------------------------------------//
+	// GETTER //
+	//----------------------------------------------//
+	// returns true if no pivot of U is null
+	public boolean isNonsingular()
+	{
+		return getRank() == n;
+	}
+
+	// returns the number of non null pivots of U, an estimation of the rank of the matrix
+	public int getRank()
+	{
+		int rank = 0;
+		for (int k=0; k<n; k++)
+			if (Math.abs(lu[k][k]) > tolerance) rank++;
+		return rank;
+	}
+
+	// returns the determinant, product of the pivots
+	public double getDeterminant()
+	{
+		double det = pivSign;
+		for (int k=0; k<n; k++) det *= lu[k][k];
+		return det;
+	}
+
+	// returns the permutation: row i of P A is the row piv[i] of A
+	public int[] getPivot()
+	{
+		return piv.clone();
+	}
+
+	public int getDimension()
+	{
+		return n;
+	}
+
+	// returns L (strictly below the diagonal) and U packed in one array, without copy
+	double[][] getFactors()
+	{
+		return lu;
+	}
+
+	double getTolerance()
+	{
+		return tolerance;
+	}
+
+	// returns the lower triangular factor, with ones on the diagonal
+	public Matrix getL()
+	{
+		Matrix l = new Matrix(n, n);
+		for (int i=0; i<n; i++)
+		{
+			for (int j=0; j<i; j++) l.setValue(i,j,lu[i][j]);
+			l.setValue(i,i,1);
+		}
+		return l;
+	}
+
+	// returns the upper triangular factor
+	public Matrix getU()
+	{
+		Matrix u = new Matrix(n, n);
+		for (int i=0; i<n; i++)
+			for (int j=i; j<n; j++) u.setValue(i,j,lu[i][j]);
+		return u;
+	}
+
+	//----------------------------------------------//
+	// SOLVE //
+	//----------------------------------------------//
+	/** Solves A x = b
+	 * @param b the right hand side, it is not modified
+	 * @return x
+	 */
+	public double[] solve(double[] b)
+	{
+		checkNonsingular();
+		double[] x = new double[n];
+		for (int i=0; i<n; i++) x[i] = b[piv[i]];
+		// L y = P b
+		for (int i=1; i<n; i++)
+		{
+			double[] rowI = lu[i];
+			double s = x[i];
+			for (int j=0; j<i; j++) s -= rowI[j] * x[j];
+			x[i] = s;
+		}
+		// U x = y
+		for (int i=n-1; i>=0; i--)
+		{
+			double[] rowI = lu[i];
+			double s = x[i];
+			for (int j=i+1; j<n; j++) s -= rowI[j] * x[j];
+			x[i] = s / rowI[i];
+		}
+		return x;
+	}
+
+	/** Solves x A = c, that is to say A^T x = c
+	 * @param c the right hand side, it is not modified
+	 * @return x
+	 */
+	public double[] solveTranspose(double[] c)
+	{
+		checkNonsingular();
+		double[] y = c.clone();
+		// U^T z = c, done by columns of U^T i.e. rows of U
+		for (int i=0; i<n; i++)
+		{
+			double[] rowI = lu[i];
+			y[i] /= rowI[i];
+			double yi = y[i];
+			if (yi == 0) continue;
+			for (int j=i+1; j<n; j++) y[j] -= rowI[j] * yi;
+		}
+		// L^T w = z
+		for (int i=n-1; i>0; i--)
+		{
+			double[] rowI = lu[i];
+			double yi = y[i];
+			if (yi == 0) continue;
+			for (int j=0; j<i; j++) y[j] -= rowI[j] * yi;
+		}
+		// x = P^T w
+		double[] x = new double[n];
+		for (int i=0; i<n; i++) x[piv[i]] = y[i];
+		return x;
+	}
+
+	// returns the inverse matrix, computed column by column
+	public Matrix getInverse()
+	{
+		Matrix inv = new Matrix(n, n);
+		double[] e = new double[n];
+		for (int j=0; j<n; j++)
+		{
+			e[j] = 1;
+			double[] col = solve(e);
+			for (int i=0; i<n; i++) inv.setValue(i,j,col[i]);
+			e[j] = 0;
+		}
+		return inv;
+	}
+
+	private void checkNonsingular()
+	{
+		if (!isNonsingular())
+			throw new ArithmeticException("The matrix is singular");
+	}
+}
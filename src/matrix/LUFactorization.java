@@ -0,0 +1,206 @@
+package matrix;
+
+/**
+ * LU factorization of a basis updated in place with the method of Forrest and Tomlin.
+ * <br> After k updates: R_k ... R_1 L^-1 P B = U, where P L U comes from the last
+ * factorization, each R_t is a row eta (one row minus a multiple of another one)
+ * and U is upper triangular up to a symmetric permutation: the rows and columns
+ * of u are read in the order given by order.
+ * <br> The column j of u corresponds to the column of position j of B, so that
+ * ftran and btran need no extra permutation.
+ */
+public class LUFactorization implements BasisFactorization
+{
+	private int n;
+	private double[][] l; // unit lower triangular factor of the last factorization (diagonal not stored)
+	private int[] piv; // row permutation of the last factorization
+	private double[][] u; // u[i][j], rows and columns in physical numbering
+	private int[] order; // order[t] is the physical index at the position t of the triangular order
+	private int[] rank; // inverse of order
+
+	// row etas R_t: row etaRow[t] -= etaMult[t] * row etaSource[t]
+	private int[] etaRow;
+	private int[] etaSource;
+	private double[] etaMult;
+	private int nbEtas;
+
+	private double[] spike; // L^-1 P a after the row etas, kept by ftran for the next update
+	private int nbUpdates;
+	private boolean drift;
+	private double tolerance = 1E-9; // relative error accepted on the new diagonal coefficient
+
+	//----------------------------------------------//
+	// CONSTRUCTOR //
+	//----------------------------------------------//
+	public LUFactorization()
+	{
+	}
+
+	public void factorize(Matrix B)
+	{
+		LUDecomposition lu = B.getLU();
+		if (!lu.isNonsingular()) throw new ArithmeticException("The matrix is singular");
+		double[][] f = lu.getFactors();
+		n = lu.getDimension();
+		piv = lu.getPivot();
+		l = new double[n][];
+		u = new double[n][n];
+		order = new int[n];
+		rank = new int[n];
+		for (int i=0; i<n; i++)
+		{
+			l[i] = java.util.Arrays.copyOf(f[i], i);
+			System.arraycopy(f[i], i, u[i], i, n-i);
+			order[i] = i;
+			rank[i] = i;
+		}
+		etaRow = new int[16];
+		etaSource = new int[16];
+		etaMult = new double[16];
+		nbEtas = 0;
+		nbUpdates = 0;
+		drift = false;
+		spike = null;
+	}
+
+	// FTRAN: replaces a by B^-1 a
+	public void ftran(double[] a)
+	{
+		double[] v = new double[n];
+		for (int i=0; i<n; i++) v[i] = a[piv[i]];
+		// L
+		for (int i=1; i<n; i++)
+		{
+			double[] li = l[i];
+			double s = v[i];
+			for (int j=0; j<i; j++) s -= li[j] * v[j];
+			v[i] = s;
+		}
+		// row etas
+		for (int t=0; t<nbEtas; t++) v[etaRow[t]] -= etaMult[t] * v[etaSource[t]];
+		spike = v.clone();
+		// U, backwards in the triangular order
+		for (int t=n-1; t>=0; t--)
+		{
+			int k = order[t];
+			double[] uk = u[k];
+			double s = v[k];
+			for (int r=t+1; r<n; r++)
+			{
+				int j = order[r];
+				s -= uk[j] * a[j];
+			}
+			a[k] = s / uk[k];
+		}
+	}
+
+	// BTRAN: replaces c by c B^-1
+	public void btran(double[] c)
+	{
+		// w U = c, forwards in the triangular order, row by row
+		double[] w = c.clone();
+		for (int t=0; t<n; t++)
+		{
+			int k = order[t];
+			double[] uk = u[k];
+			double wk = w[k] / uk[k];
+			w[k] = wk;
+			if (wk == 0) continue;
+			for (int r=t+1; r<n; r++)
+			{
+				int j = order[r];
+				w[j] -= wk * uk[j];
+			}
+		}
+		// row etas, in reverse order
+		for (int t=nbEtas-1; t>=0; t--) w[etaSource[t]] -= etaMult[t] * w[etaRow[t]];
+		// L, backwards
+		for (int i=n-1; i>0; i--)
+		{
+			double wi = w[i];
+			if (wi == 0) continue;
+			double[] li = l[i];
+			for (int j=0; j<i; j++) w[j] -= wi * li[j];
+		}
+		for (int i=0; i<n; i++) c[piv[i]] = w[i];
+	}
+
+	/** Forrest-Tomlin update: the column p of U is replaced by the spike, the position
+	 * of p goes to the end of the triangular order and the row p is eliminated with row etas.
+	 */
+	public void update(int p, double[] d)
+	{
+		if (spike == null) throw new IllegalStateException("ftran must be called before update");
+		double oldDiagonal = u[p][p];
+		for (int i=0; i<n; i++) u[i][p] = spike[i];
+		spike = null;
+
+		int t0 = rank[p];
+		for (int t=t0; t<n-1; t++)
+		{
+			order[t] = order[t+1];
+			rank[order[t]] = t;
+		}
+		order[n-1] = p;
+		rank[p] = n-1;
+
+		// the row p has non null coefficients in the columns which now precede it
+		double[] up = u[p];
+		for (int t=t0; t<n-1; t++)
+		{
+			int k = order[t];
+			double x = up[k];
+			if (x == 0) continue;
+			double[] uk = u[k];
+			double mult = x / uk[k];
+			for (int r=t; r<n; r++)
+			{
+				int j = order[r];
+				up[j] -= mult * uk[j];
+			}
+			up[k] = 0;
+			addEta(p, k, mult);
+		}
+
+		// the determinant is multiplied by d[p]: only the diagonal coefficient of p has changed
+		double expected = oldDiagonal * d[p];
+		if (Math.abs(up[p] - expected) > tolerance * (1 + Math.abs(expected)) || up[p] == 0) drift = true;
+		nbUpdates++;
+	}
+
+	private void addEta(int row, int source, double mult)
+	{
+		if (nbEtas == etaRow.length)
+		{
+			etaRow = java.util.Arrays.copyOf(etaRow, 2*nbEtas);
+			etaSource = java.util.Arrays.copyOf(etaSource, 2*nbEtas);
+			etaMult = java.util.Arrays.copyOf(etaMult, 2*nbEtas);
+		}
+		etaRow[nbEtas] = row;
+		etaSource[nbEtas] = source;
+		etaMult[nbEtas] = mult;
+		nbEtas++;
+	}
+
+	public int getNbUpdates()
+	{
+		return nbUpdates;
+	}
+
+	// returns the number of row etas created by the updates
+	public int getNbEtas()
+	{
+		return nbEtas;
+	}
+
+	public boolean needsRefactorization()
+	{
+		return drift;
+	}
+
+	// relative error accepted on the new diagonal coefficient before asking for a refactorization
+	public void setTolerance(double tolerance)
+	{
+		this.tolerance = tolerance;
+	}
+}
@@ -9,6 +9,8 @@ import java.util.ArrayList;
 public class Matrix
 {
 	private double[][] coeff = null;
+	private int nbRows;
+	private int nbColumns; // also known when the matrix has no row
 	//----------------------------------------------//
 	// CONSTRUCTOR //
 	//----------------------------------------------//
@@ -27,13 +29,15 @@ public class Matrix
 	}
 	public Matrix(double[][] mat)
 	{
-		this.coeff = mat;
+		this.setMatrix(mat);
 	}
 
-	// define a matrix of type double[][]
+	// define a matrix of type double[][], the values are copied
 	public void setMatrix(double[][] mat)
 	{
-		this.coeff = mat;
+		this.setDimension(mat.length, mat.length == 0 ? 0 : mat[0].length);
+		for (int i=0; i<nbRows; i++)
+			System.arraycopy(mat[i], 0, this.coeff[i], 0, nbColumns);
 	}
 	// define a value at position i and j
 	// i - row
@@ -45,32 +49,37 @@ public class Matrix
 	// we define the size of the matrix
 	public void setDimension(int i, int j)
 	{
+		this.nbRows = i;
+		this.nbColumns = j;
 		this.coeff = new double[i][j];
 	}
 	//----------------------------------------------//
 	// GETTER //
 	//----------------------------------------------//
-	// returns the matrix as a double[][]
+	// returns a copy of the matrix as a double[][]
 	public double[][] getMatrix
 	()
 	{
-		return this.coeff;
+		double[][] mat = new double[nbRows][];
+		for (int i=0; i<nbRows; i++)
+			mat[i] = this.coeff[i].clone();
+		return mat;
 	}
 	// returns the number of rows
 	public int getNbRows()
 	{
-		return this.coeff.length;
+		return this.nbRows;
 	}
 	// returns the number of columns
 	public int getNbColumns()
 	{
-		return this.coeff[0].length;
+		return this.nbColumns;
 	}
 	
 	public double[] getColonne(int j) {
-		double[] col = new double[getNbRows()];
+		double[] col = new double[nbRows];
 		
-		for (int i = 0; i < getNbRows(); i++) col[i] = getValue(i, j);
+		for (int i = 0; i < nbRows; i++) col[i] = coeff[i][j];
 		return col;
 	}
 
@@ -79,65 +88,22 @@ public class Matrix
 		return this.coeff[i][j];
 	}
 
+	// returns the LU decomposition with partial pivoting of the matrix, which must be square
+	public LUDecomposition getLU()
+	{
+		return new LUDecomposition(this);
+	}
+
 	// returns the determinant of a matrix
 	public double getDeterminant()
 	{
-		Matrix a = null;
-		double value = 0;
-		if (this.getNbRows() == 2)
-			return (this.getValue(0,0) * this.getValue(1,1) - this.getValue(1,0)* this.getValue(0,1));
-		else if (this.getNbRows() == 1) return this.getValue(0,0);
-		for (int j=0; j<this.getNbColumns(); j++)
-		{
-			a = this.getExtractMatrix(0,j);
-			value += (int)Math.pow(-1,j)*(this.getValue(0,j)*a.getDeterminant());
-		}
-		return value;
+		return this.getLU().getDeterminant();
 	}
 
 	// return the inverse matrix  of the matrix this
 	public Matrix getInverseMatrix()
 	{
-		Matrix a = new Matrix(this.getNbRows(), this.getNbColumns());
-		Matrix tmp = null;
-		double det = this.getDeterminant();
-		for (int i=0; i<this.getNbRows(); i++)
-			for (int j=0; j< this.getNbColumns(); j++)
-			{
-				tmp = this.getExtractMatrix(i,j);
-				a.setValue(i,j,(int)Math.pow(-1,i+j)*(tmp.getDeterminant()/det));
-			}
-		return a.getTransposeMatrix();
-	}
-
-	/* Retourne une nouvelle matrice mais en supprimant
-	 * la ligne row et la colonne columns
-	 */
-	private Matrix getExtractMatrix(int row, int column)
-	{
-		Matrix a = new Matrix(this.getNbRows()-1, this.getNbColumns()-1);
-		int k = -1, m = 0;
-		for (int i=0; i<this.getNbRows(); i++)
-		{
-			k++;
-			if (i == row)
-			{
-				k--;
-				continue;
-			}
-			m = -1;
-			for (int j=0; j<this.getNbColumns(); j++)
-			{
-				m++;
-				if (j==column)
-				{
-					m--;
-					continue;
-				}
-				a.setValue(k,m,this.getValue(i,j));
-			}
-		}
-		return a;
+		return this.getLU().getInverse();
 	}
 
 	// transpose la matrice
@@ -196,7 +162,7 @@ public class Matrix
 	// détermine if the matrix is invertible
 	public boolean isInvertible()
 	{
-		return (this.getDeterminant() != 0);
+		return this.getLU().isNonsingular();
 	}
 
 
@@ -208,7 +174,7 @@ public class Matrix
 		for (int i=0; i<this.getNbRows(); i++)
 		{
 			for (int j=0; j< this.getNbColumns(); j++)
-				out += this.coeff[i][j] + "\t ";
+				out += this.getValue(i,j) + "\t ";
 			out += "\n";
 		}
 		return out;
@@ -230,11 +196,14 @@ public class Matrix
 	}
 	
 	public double[] leftProduct(double[] row) {
-		double P[] = new double[getNbRows()];
+		double P[] = new double[nbColumns];
 		
-		for (int j = 0; j < this.getNbColumns(); j++) {
-			P[j] = 0;
-			for (int i = 0; i < getNbColumns(); i++) P[j] += row[i] * getValue(i, j);
+		// row by row, so that each row of coeff is read in order
+		for (int i = 0; i < nbRows; i++) {
+			double r = row[i];
+			if (r == 0) continue;
+			double[] line = coeff[i];
+			for (int j = 0; j < nbColumns; j++) P[j] += r * line[j];
 		}
 		return P;
 	}
@@ -243,9 +212,11 @@ public class Matrix
 	public double[] rightProduct(double[] col) {
 		double P[] = new double[getNbRows()];
 		
-		for (int i = 0; i < this.getNbRows(); i++) {
-			P[i] = 0;
-			for (int j = 0; j < getNbColumns(); j++) P[i] += getValue(i, j) * col[j];
+		for (int i = 0; i < nbRows; i++) {
+			double p = 0;
+			double[] line = coeff[i];
+			for (int j = 0; j < nbColumns; j++) p += line[j] * col[j];
+			P[i] = p;
 		}
 		return P;
 	}
@@ -0,0 +1,117 @@
+package simplex;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Scanner;
+
+/**
+ * A basis of a problem, saved to start a later resolution from it (warm start): the numbers
+ * of the basic variables, in the order of the rows of the dictionary, and the numbers of the
+ * non-basic variables at their upper bound (the other ones are at their lower bound).
+ * <br> The file contains:
+ * <br> basis n m
+ * <br> the m numbers of the basic variables
+ * <br> optionally, upper followed by the numbers of the non-basic variables at their upper bound
+ */
+public class Basis {
+	private int nbVariables; // number of decision variables
+	private int[] basic;
+	private int[] atUpper;
+
+	public Basis(int nbVariables, int[] basic, int[] atUpper) {
+		this.nbVariables = nbVariables;
+		this.basic = basic.clone();
+		this.atUpper = atUpper.clone();
+	}
+
+	/**
+	 * Takes the basis of a dictionary of the second phase.
+	 */
+	public Basis(Dictionary dict) {
+		if (dict.basicIndex(0) != 0 || dict.nonBasicIndex(0) != 0)
+			throw new IllegalStateException("The dictionary of the first phase has no basis of the problem");
+		nbVariables = dict.getNbNonBasic();
+		basic = new int[dict.getNbBasic()];
+		for (int i = 1; i <= basic.length; i++) basic[i - 1] = dict.getBasicVar()[i];
+		int count = 0;
+		for (int j = 1; j <= nbVariables; j++)
+			if (dict.isComplemented(dict.getNonBasicVar()[j])) count++;
+		atUpper = new int[count];
+		count = 0;
+		for (int j = 1; j <= nbVariables; j++)
+			if (dict.isComplemented(dict.getNonBasicVar()[j])) atUpper[count++] = dict.getNonBasicVar()[j];
+	}
+
+	public static Basis read(File file) throws IOException {
+		Scanner reader = new Scanner(file);
+		try {
+			if (!reader.hasNext("(?i)basis")) throw new IOException("The file does not contain a basis");
+			reader.next();
+			int n = reader.nextInt();
+			int m = reader.nextInt();
+			int[] basic = new int[m];
+			for (int i = 0; i < m; i++) basic[i] = reader.nextInt();
+			ArrayList<Integer> upper = new ArrayList<Integer>();
+			if (reader.hasNext("(?i)upper")) {
+				reader.next();
+				while (reader.hasNextInt()) upper.add(reader.nextInt());
+			}
+			int[] atUpper = new int[upper.size()];
+			for (int k = 0; k < atUpper.length; k++) atUpper[k] = upper.get(k);
+			return new Basis(n, basic, atUpper);
+		}
+		catch (java.util.NoSuchElementException exc) {
+			throw new IOException("Wrong file of basis");
+		}
+		finally {
+			reader.close();
+		}
+	}
+
+	public void save(File file) throws IOException {
+		PrintWriter output = new PrintWriter(file);
+		output.println("basis " + nbVariables + " " + basic.length);
+		for (int i = 0; i < basic.length; i++) output.print((i == 0 ? "" : " ") + basic[i]);
+		output.println();
+		if (atUpper.length > 0) {
+			output.print("upper");
+			for (int num : atUpper) output.print(" " + num);
+			output.println();
+		}
+		output.close();
+	}
+
+	public int getNbVariables() {
+		return nbVariables;
+	}
+
+	public int getNbConstraints() {
+		return basic.length;
+	}
+
+	/**
+	 * @return the numbers of the basic variables, the one of the row i being at index i - 1
+	 */
+	public ArrayList<Integer> getBasicVariables() {
+		ArrayList<Integer> base = new ArrayList<Integer>();
+		for (int num : basic) base.add(num);
+		return base;
+	}
+
+	public int[] getAtUpper() {
+		return atUpper.clone();
+	}
+
+	@Override
+	public String toString() {
+		String out = "basis";
+		for (int num : basic) out += " x" + num;
+		if (atUpper.length > 0) {
+			out += ", at the upper bound:";
+			for (int num : atUpper) out += " x" + num;
+		}
+		return out;
+	}
+}
@@ -0,0 +1,237 @@
+package simplex;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Resolution without window of many independent problems, each one by its own Simplex on a pool of threads.
+ * A line is written for each problem as soon as it is solved (see SolveResult), then a summary with the
+ * number of problems of each status and the throughput.
+ * <br> Usage: java simplex.Main directory|glob [-threads n] [-method name] [-presolve] [-scale]
+ * [-max iterations] [-time milliseconds] [-output file] [-trace directory [-snapshot n]]
+ * <br> -max and -time limit each resolution, which then gives a partial result (see SolveResult).
+ * <br> with -trace, the steps of each problem are recorded in directory/name.trace (see TraceRecorder),
+ * with a snapshot of the dictionary every n steps.
+ * <br> for instance: java simplex.Main "pbs/pb*.txt" -threads 8 -method DEVEX
+ */
+public class BatchSolver {
+	private int nbThreads = Runtime.getRuntime().availableProcessors();
+	private EnteringMethod method = EnteringMethod.STEEPEST_EDGE;
+	private boolean presolve = false;
+	private boolean scale = false;
+	private SolverContext context = new SolverContext(); // the settings of the resolutions, copied for each one
+	private File traceDirectory = null; // where the traces are recorded, null for no trace
+	private int snapshotInterval = 0;
+	private ArrayList<SolveResult> results = new ArrayList<SolveResult>();
+	private long time; // of the whole batch, in nanoseconds
+
+	/**
+	 * @param pattern a directory, whose files are all taken, or a path whose last name is a glob, as pbs/pb*.txt
+	 * @return the files of the problems, sorted by name
+	 */
+	public static List<File> files(String pattern) throws IOException {
+		File file = new File(pattern);
+		Path directory = file.isDirectory() ? file.toPath() : file.getAbsoluteFile().getParentFile().toPath();
+		String glob = file.isDirectory() ? "*" : file.getName();
+		ArrayList<File> files = new ArrayList<File>();
+		DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob);
+		try {
+			for (Path path : stream)
+				if (Files.isRegularFile(path)) files.add(path.toFile());
+		}
+		finally {
+			stream.close();
+		}
+		Collections.sort(files);
+		return files;
+	}
+
+	/**
+	 * Solves the problems concurrently.
+	 * @param files the files of the problems
+	 * @param report where the line of each problem is written, in the order of the ends of the resolutions;
+	 * null for no report
+	 * @return the results, in the order of the files
+	 */
+	public List<SolveResult> solve(List<File> files, PrintWriter report) throws InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(nbThreads);
+		CompletionService<SolveResult> service = new ExecutorCompletionService<SolveResult>(pool);
+		ArrayList<Future<SolveResult>> futures = new ArrayList<Future<SolveResult>>();
+		ArrayList<SolveResult> ordered = new ArrayList<SolveResult>();
+		long start = System.nanoTime();
+		results.clear();
+		try {
+			for (final File file : files)
+				futures.add(service.submit(new Callable<SolveResult>() {
+					public SolveResult call() {
+						return solve(file);
+					}
+				}));
+			for (int k = 0; k < files.size(); k++) {
+				SolveResult result = service.take().get();
+				results.add(result);
+				if (report != null) report.println(result);
+			}
+			for (Future<SolveResult> future : futures) ordered.add(future.get());
+		}
+		catch (ExecutionException exc) {
+			throw new IllegalStateException(exc.getCause()); // solve(File) catches the exceptions
+		}
+		finally {
+			pool.shutdownNow();
+		}
+		time = System.nanoTime() - start;
+		return ordered;
+	}
+
+	/**
+	 * Solves one problem; called by the threads of the pool.
+	 */
+	public SolveResult solve(File file) {
+		long start = System.nanoTime();
+		TraceRecorder trace = null;
+		try {
+			Simplex simplex = new Simplex(new SolverContext(context));
+			if (traceDirectory != null) {
+				SolverContext settings = simplex.getContext();
+				trace = new TraceRecorder(new File(traceDirectory, file.getName() + ".trace"), snapshotInterval,
+						settings.getListener());
+				settings.setListener(trace);
+			}
+			Dictionary dictionary = simplex.load(new Problem(file), presolve, scale);
+			dictionary.setMethod(method);
+			SolveStatus status = simplex.solve();
+			dictionary = simplex.getDictionary();
+			if (trace != null) trace.close();
+			if (status == SolveStatus.ERROR) // the dictionary is incomplete
+				return new SolveResult(file.getPath(), "The method " + method + " is not written", System.nanoTime() - start);
+			// a partial result has the objective reached only in the second phase
+			boolean withObjective = status == SolveStatus.OPTIMAL || (status.isLimit() && simplex.getPhase() == 2);
+			double objective = withObjective ? dictionary.getCoefficient(0, 0) : Double.NaN;
+			// in the first phase, the basis is one of the problem only if x0 is not basic
+			int[] basis = dictionary.basicIndex(0) != 0 ? null
+					: java.util.Arrays.copyOfRange(dictionary.getBasicVar(), 1, dictionary.getNbBasic() + 1);
+			return new SolveResult(file.getPath(), status, objective, dictionary.getStatistics().getNbIterations(),
+					System.nanoTime() - start, basis);
+		}
+		catch (IOException | RuntimeException exc) {
+			return new SolveResult(file.getPath(), exc.toString(), System.nanoTime() - start);
+		}
+		finally {
+			if (trace != null) {
+				try {
+					trace.close(); // after an error; does nothing if already closed
+				}
+				catch (IOException exc) {
+				}
+			}
+		}
+	}
+
+	public int getNbThreads() {
+		return nbThreads;
+	}
+
+	public void setNbThreads(int nbThreads) {
+		this.nbThreads = nbThreads;
+	}
+
+	public EnteringMethod getMethod() {
+		return method;
+	}
+
+	public void setMethod(EnteringMethod method) {
+		this.method = method;
+	}
+
+	public void setPresolve(boolean presolve) {
+		this.presolve = presolve;
+	}
+
+	public void setScale(boolean scale) {
+		this.scale = scale;
+	}
+
+	/**
+	 * @param traceDirectory where the trace of each problem is recorded, null for no trace
+	 * @param snapshotInterval a snapshot of the dictionary every snapshotInterval steps, 0 for none
+	 */
+	public void setTrace(File traceDirectory, int snapshotInterval) {
+		this.traceDirectory = traceDirectory;
+		this.snapshotInterval = snapshotInterval;
+	}
+
+	/**
+	 * @return the settings of the resolutions (tolerances, limits), copied for each problem; the listener
+	 * is SolverListener.NONE by default
+	 */
+	public SolverContext getContext() {
+		return context;
+	}
+
+	/**
+	 * @return the time of the last batch in nanoseconds
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * @return the number of problems of each status, the time and the throughput of the last batch
+	 */
+	public String summary() {
+		EnumMap<SolveStatus, Integer> counts = new EnumMap<SolveStatus, Integer>(SolveStatus.class);
+		long iterations = 0, cpu = 0;
+		for (SolveResult result : results) {
+			Integer count = counts.get(result.getStatus());
+			counts.put(result.getStatus(), count == null ? 1 : count + 1);
+			iterations += result.getIterations();
+			cpu += result.getTime();
+		}
+		double seconds = time / 1e9;
+		String out = results.size() + " problems on " + nbThreads + " threads in " + String.format(Locale.ROOT, "%.3f", seconds) + " s\n";
+		out += counts + "\n";
+		out += String.format(Locale.ROOT, "Throughput: %.1f problems/s, %.0f iterations/s (%d iterations, %.3f s of resolution)\n",
+				results.size() / seconds, iterations / seconds, iterations, cpu / 1e9);
+		return out;
+	}
+
+	public static void main(String[] arg) throws IOException, InterruptedException {
+		BatchSolver batch = new BatchSolver();
+		PrintWriter report = new PrintWriter(System.out, true);
+		for (int k = 1; k < arg.length; k++) {
+			if (arg[k].equals("-threads")) batch.setNbThreads(Integer.parseInt(arg[++k]));
+			else if (arg[k].equals("-method")) batch.setMethod(EnteringMethod.valueOf(arg[++k].toUpperCase()));
+			else if (arg[k].equals("-presolve")) batch.setPresolve(true);
+			else if (arg[k].equals("-scale")) batch.setScale(true);
+			else if (arg[k].equals("-max")) batch.getContext().setMaxIterations(Integer.parseInt(arg[++k]));
+			else if (arg[k].equals("-time")) batch.getContext().setTimeLimit(Long.parseLong(arg[++k]));
+			else if (arg[k].equals("-output")) report = new PrintWriter(new File(arg[++k]));
+			else if (arg[k].equals("-trace")) batch.setTrace(new File(arg[++k]), batch.snapshotInterval);
+			else if (arg[k].equals("-snapshot")) batch.setTrace(batch.traceDirectory, Integer.parseInt(arg[++k]));
+			else throw new IllegalArgumentException("Unknown option: " + arg[k]);
+		}
+		List<File> files = files(arg[0]);
+		report.println("name\tstatus\tobjective\titerations\ttime (ms)\tbasis or error");
+		batch.solve(files, report);
+		report.flush();
+		if (report.checkError()) System.err.println("The report could not be written");
+		System.out.print(batch.summary());
+	}
+}
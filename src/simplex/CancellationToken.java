@@ -0,0 +1,18 @@
+package simplex;
+
+/**
+ * Asks a resolution to stop: Simplex.solve and Simplex.run read it before each step, and stop with the
+ * status CANCELLED after cancel() has been called by any thread. A token given to the context of
+ * BatchSolver is shared by all the resolutions of the batch.
+ */
+public class CancellationToken {
+	private volatile boolean cancelled = false;
+
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+}
@@ -0,0 +1,73 @@
+package simplex;
+
+import java.util.ArrayList;
+
+import matrix.Matrix;
+
+/**
+ * Choice of a starting basis with structural columns (crash), to avoid the first phase
+ * when the basis of the slack variables is not feasible.
+ */
+public class Crash {
+	static final double pivotThreshold = 0.01; // a pivot must be at least this fraction of the greatest coefficient of its column
+
+	/**
+	 * Triangular crash on the constraints A x <= b: each infeasible row (b_i < 0) takes, in place of its
+	 * slack variable, a structural column with a negative coefficient in this row, so that this column
+	 * gets a positive value. The rows with fewer candidates are treated first. Once a pivot is chosen in
+	 * a row, the columns having a non null coefficient in this row are no longer candidates: the basis
+	 * is then triangular up to a permutation, hence non singular.
+	 * @param A the matrix of the constraints with the slack columns, of size m x (n + m), as computed by
+	 * Simplex.computeABeginning
+	 * @param b the right hand sides
+	 * @return the numbers of the basic variables, the one of the row i being at index i - 1
+	 */
+	public static ArrayList<Integer> triangularBasis(Matrix A, double[] b) {
+		int m = A.getNbRows(), n = A.getNbColumns() - m;
+		boolean[] rowDone = new boolean[m];
+		boolean[] columnDone = new boolean[n];
+		int[] basic = new int[m];
+		double[] columnMax = new double[n];
+
+		for (int i = 0; i < m; i++) basic[i] = n + i + 1;
+		for (int j = 0; j < n; j++)
+			for (int i = 0; i < m; i++) columnMax[j] = Math.max(columnMax[j], Math.abs(A.getValue(i, j)));
+
+		while (true) {
+			// the infeasible row with the fewest candidates
+			int row = -1, fewest = Integer.MAX_VALUE;
+			for (int i = 0; i < m; i++) {
+				if (rowDone[i] || b[i] >= 0) continue;
+				int count = 0;
+				for (int j = 0; j < n; j++)
+					if (!columnDone[j] && A.getValue(i, j) < 0) count++;
+				if (count < fewest) {
+					fewest = count;
+					row = i;
+				}
+			}
+			if (row == -1) break;
+			rowDone[row] = true;
+
+			// the candidate of greatest coefficient relatively to its column
+			int column = -1;
+			double best = pivotThreshold;
+			for (int j = 0; j < n; j++) {
+				double a = A.getValue(row, j);
+				if (columnDone[j] || a >= 0) continue;
+				if (-a / columnMax[j] >= best) {
+					best = -a / columnMax[j];
+					column = j;
+				}
+			}
+			if (column == -1) continue;
+			basic[row] = column + 1;
+			for (int j = 0; j < n; j++)
+				if (A.getValue(row, j) != 0) columnDone[j] = true;
+		}
+
+		ArrayList<Integer> base = new ArrayList<Integer>();
+		for (int i = 0; i < m; i++) base.add(basic[i]);
+		return base;
+	}
+}
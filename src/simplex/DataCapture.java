@@ -29,6 +29,8 @@ public class DataCapture extends JFrame implements ActionListener {
 		textArea.append("number of variables then number of constraints\n");
 		textArea.append("then the constraints, if a1 x1 + a2 x2 <= b: write a1 a2 b\n");
 		textArea.append("then the objective function, if z = c1 x1 + c2 x2: write c1 c2\n");
+		textArea.append("optionally, the word bounds then one line per bounded variable,\n");
+		textArea.append("if l <= x2 <= u: write 2 l u (u can be inf)\n");
 		add(textArea);
 		setLocation(200, 200);
 		pack();
@@ -3,9 +3,8 @@ package simplex;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Locale;
-import java.util.Observable;
-import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 
 
@@ -13,12 +12,13 @@ import simplex.Dictionary;
 import simplex.EnteringMethod;
 import simplex.Simplex;
 
+import matrix.LUDecomposition;
 import matrix.Matrix;
 
 ;/**
  * Class that models a dictionary
  */
-public class Dictionary extends Observable {
+public class Dictionary {
 	// Decision variables have numbers between 1 et nbNonBasisVar
 	// Slack variables have numbers between 1 + nbNonBasisVar + 1 and nbBasisVar + nbNonBasisVar
 	// In the first phase looking for a feasible solution,
@@ -29,7 +29,7 @@ public class Dictionary extends Observable {
 	private int[] arrayBasicVar;  // contains from index 1 the numbers of the basic variables, in the order of D (the index 0 is not used)
 	int[] arrayNonBasicVar; // contains from index 1 the numbers of the non-basic variables, in the order of D (the box of index 0 is not used)
 
-	private double[][] D;
+	private double[][] D; // nbBasicVar + 1 rows of nbNonBasicVar + 1 coefficients
 	// For the modeled dictionary:
 	// D[0][0] contains the constant of the function z
 	// for j which varies from 1 to nbNonBasicVar;, D[0][j] contains the coefficient in the function z of the non-basic variable of index j
@@ -39,12 +39,68 @@ public class Dictionary extends Observable {
 
 	EnteringMethod method = EnteringMethod.FIRST; // Indicates the method to use to choose the entering variable
 	// Can take values EnteringMethod.FIRST, 
-	// EnteringMethod.BIGGEST, EnteringMethod.MORE_ADVANTAGEOUS;
+	// EnteringMethod.BIGGEST, EnteringMethod.MORE_ADVANTAGEOUS, EnteringMethod.STEEPEST_EDGE, EnteringMethod.DEVEX;
+	private double[] weights; // pricing weights of the columns of D for STEEPEST_EDGE and DEVEX (index 0 unused)
+	private int pivotsSinceWeights; // number of incremental updates of the steepest edge weights
+	static final int WEIGHTS_REFRESH = 100; // the steepest edge weights are recomputed after this number of pivots
+
+	// Partial pricing: only a segment of pricingSegment columns of the objective row is examined,
+	// starting where the previous search stopped; 0 means that every column is examined.
+	int pricingSegment = 0;
+	private int pricingStart = 1; // index in arrayNonBasicVar of the beginning of the next segment
+	// Multiple pricing: a scan keeps the candidateListSize best columns, and the following
+	// steps choose among them until none is attractive any more; 0 or 1 means not used.
+	int candidateListSize = 0;
+	private int[] candidates; // indices in arrayNonBasicVar of the candidates
+	private int[] candidateNumbers; // numbers of the variables, to detect a candidate which has left the column
+	private int nbCandidates;
+	SolveStatistics statistics = new SolveStatistics();
+
+	// Parallel pivot: the substitution of the entering variable is shared between the threads of a
+	// ForkJoinPool (the common pool if pool is null) when D has at least parallelThreshold coefficients.
+	boolean parallel = false;
+	int parallelThreshold = 1 << 16;
+	ForkJoinPool pool;
+	static final int PARALLEL_GRAIN = 1 << 13; // approximate number of coefficients updated by one task
+
+	// Work arrays of pivote: nonzero patterns of the pivot row and of the pivot column
+	private int[] rowPattern;
+	private int[] columnPattern;
+	private double[] columnValues;
+	static final double SPARSE_DENSITY = 0.25; // the pivot row is used by its pattern below this density
 	boolean bland; //if this variable is true, we apply the Bland rule
 	boolean optimal; // goes to true if the dictionary is optimal
 	boolean borned =  true; // goes to false if the problem is not bounded
+	boolean feasibleProblem = true; // goes to false if a step of the dual simplex shows that the problem is not feasible
+	SimplexAlgorithm algorithm = SimplexAlgorithm.PRIMAL; // algorithm applied by oneStep
+
+	// Bounds of the variables, indexed by the numbers of the variables; null if no variable is bounded.
+	// A variable x_j with lower bound l_j is replaced by x_j - l_j when reading the file, so that every
+	// variable has 0 as lower bound. A non-basic variable at its upper bound u_j is "complemented":
+	// the dictionary uses x'_j = u_j - x_j instead of x_j. Basic variables are never complemented.
+	private double[] upperBound; // upper bound minus lower bound, Double.POSITIVE_INFINITY if none
+	private double[] lowerBound; // the lower bounds read in the file
+	private boolean[] complemented;
+	boolean leavingToUpper; // set by the ratio test when the leaving variable reaches its upper bound
 	private boolean incomplete = false;
-	public static double epsilon = 1E-12; // to test that a double is zero...
+	Presolve presolve; // the presolve which has given the problem of the dictionary, null if none
+	Scaling scaling; // the scaling which has given the problem of the dictionary, null if none
+	private SolverContext context = new SolverContext(); // tolerances and listener, shared by the dictionaries of a resolution
+	// costs[num] is the cost of the decision variable num and rhs[i] the right hand side of the
+	// constraint i (index 0 unused), as given by the problem; used by the modifications in memory
+	double[] costs;
+	double[] rhs;
+	public static final double epsilon = 1E-12; // to test that a double is zero...
+	boolean harris = false; // if true, the ratio test of Harris is used
+
+	// Detection of cycles: the keys of the bases met since the objective last increased, in a ring of
+	// context.getCycleMemory() places. A key met again shows a cycle: Bland's rule is then applied until
+	// the objective increases.
+	private long[] recentBases;
+	private int nbRecentBases = 0;
+	private int nextRecentBase = 0;
+	private double lastObjective = Double.NEGATIVE_INFINITY;
+	boolean antiCycling = false; // true while Bland's rule is applied after a cycle
 
 	/**
 	 * Initializes the dictionary from reading a file
@@ -55,6 +111,14 @@ public class Dictionary extends Observable {
 		readFile(file);
 	}
 
+	/**
+	 * Initializes the dictionary of a problem, for instance reduced by a presolve
+	 * @param problem the problem, whose variables are numbered from 1 in the order of its arrays
+	 */
+	public Dictionary(Problem problem) {
+		load(problem);
+	}
+
 	/**
 	 * Constructs a dictionary corresponding to the parameters.
 	 * Knowing the number of rows and columns, the allocation of the arrays needed for
@@ -87,7 +151,11 @@ public class Dictionary extends Observable {
 		
 		for (int i=1; i<= nbBasicVar;i++) {
 			
-			if (D[i][0]<0) {
+			if (D[i][0] < -context.primalTolerance) {
+				
+				feasible = false;
+			}
+			else if (hasBounds() && D[i][0] > getUpperBound(arrayBasicVar[i]) + context.primalTolerance) {
 				
 				feasible = false;
 			}
@@ -114,7 +182,7 @@ public class Dictionary extends Observable {
 		int index =0;
 		for(int j=1; j<= nbNonBasicVar;j++) {
 			
-			if(D[0][j]>0) {
+			if(D[0][j] > context.dualTolerance) {
 				
 				index = j;
 				break;
@@ -131,49 +199,85 @@ public class Dictionary extends Observable {
 	 * of D that will be used in this method.
 	 * In this method, we must use D[i][0] and D[i][jE] for the index i which varies from 1 to nbBasicVar.
 	 * @return If the dictionary shows that the problem is not bounded, returns 0.
+	 * 		   If the entering variable reaches its own upper bound first, returns -1 (bound flip, no pivot).
 	 * 		   Otherwise, returns the index in arrayBasicVar of a leaving variable, i.e. the index of the row of
-	 * 		   the matrix D corresponding to the leaving variable.
-	 * 
+	 * 		   the matrix D corresponding to the leaving variable; leavingToUpper then indicates if it
+	 * 		   leaves at its upper bound.
+	 * <br> Single pass without allocation: the coefficients smaller than pivotTolerance in absolute value
+	 * are ignored and the ties are broken in favour of the greatest pivot.
 	 */
 	public int searchIndexLeavingVariable(int jE)  {
-		
-		ArrayList<Double> A = new ArrayList<Double>();
-		int index =0;
-	 
-		
-		for (int i=1;i<=nbBasicVar;i++) {
-			
-			Double A_i = -(D[i][0])/(D[i][jE]);
+		double min = getUpperBound(arrayNonBasicVar[jE]);
+		int iS = min == Double.POSITIVE_INFINITY ? 0 : -1;
+		double pivot = 0; // absolute value of the coefficient of the chosen row
+		leavingToUpper = false;
+		for (int i = 1; i <= nbBasicVar; i++) {
+			double a = D[i][jE];
+			if (a <= context.pivotTolerance && a >= -context.pivotTolerance) continue;
+			double ratio = ratio(i, a, 0);
+			// between equal ratios, the greatest pivot is the most stable
+			if (ratio < min || (ratio == min && iS > 0 && Math.abs(a) > pivot)) {
+				min = ratio;
+				iS = i;
+				pivot = Math.abs(a);
+			}
+		}
+		if (iS > 0) leavingToUpper = D[iS][jE] > 0;
+		return iS;
+	}
 
-			A.add(A_i);
+	/**
+	 * Ratio test of Harris in two passes. The first pass computes the greatest step thetaMax of the
+	 * entering variable which keeps every basic variable within its bounds relaxed by primalTolerance;
+	 * the second one chooses, among the rows whose exact ratio is at most thetaMax, the one of greatest
+	 * pivot. The small pivots are so avoided on degenerate vertices, at the price of infeasibilities
+	 * smaller than primalTolerance.
+	 * @param jE the index in arrayNonBasicVar of the entering variable
+	 * @return the same values as searchIndexLeavingVariable
+	 */
+	public int searchIndexLeavingVariableHarris(int jE) {
+		double flip = getUpperBound(arrayNonBasicVar[jE]);
+		double thetaMax = flip;
+		leavingToUpper = false;
+		for (int i = 1; i <= nbBasicVar; i++) {
+			double a = D[i][jE];
+			if (a <= context.pivotTolerance && a >= -context.pivotTolerance) continue;
+			double ratio = ratio(i, a, context.primalTolerance);
+			if (ratio < thetaMax) thetaMax = ratio;
 		}
-		int c =0;
-		
-		for (int k=0; k<= nbBasicVar-2;k++) {
-			
-			index = k+1;
-			if(A.get(k)<0) {
-				 c++;
+		if (thetaMax == Double.POSITIVE_INFINITY) return 0;
 
+		int iS = 0;
+		double pivot = 0;
+		double step = 0;
+		for (int i = 1; i <= nbBasicVar; i++) {
+			double a = D[i][jE];
+			double abs = Math.abs(a);
+			if (abs <= context.pivotTolerance || abs <= pivot) continue;
+			double ratio = ratio(i, a, 0);
+			if (ratio <= thetaMax) {
+				iS = i;
+				pivot = abs;
+				step = ratio;
 			}
-			
-			if(A.get(k+1)<A.get(k)) {
-				
-				index = k+2;
-			}
-		}
-		
-		if(A.get(nbBasicVar-1)<0) {
-			
-			c++;
-		}
-		
-		if (c == nbBasicVar) {
-			
-			index =0;
 		}
-		
-		return index; 
+		if (iS == 0 || flip <= step) return -1;
+		leavingToUpper = D[iS][jE] > 0;
+		return iS;
+	}
+
+	/**
+	 * @return the step of the entering variable for which the basic variable of the row i reaches
+	 * 0 (if a < 0) or its upper bound (if a > 0), both relaxed by delta; never negative,
+	 * Double.POSITIVE_INFINITY if this variable does not limit the entering one
+	 * @param a the coefficient D[i][jE] of the entering variable in the row i
+	 */
+	private double ratio(int i, double a, double delta) {
+		double value = D[i][0];
+		if (a < 0) return Math.max(value + delta, 0) / -a;
+		double u = getUpperBound(arrayBasicVar[i]);
+		if (u == Double.POSITIVE_INFINITY) return u;
+		return Math.max(u + delta - value, 0) / a;
 	}
 	
 	/**
@@ -215,56 +319,214 @@ public class Dictionary extends Observable {
 	 * 12  0,2 -2,4 
 	 */
 	public void pivote(int iS, int jE) {
-		
-		 double[][] H;
-			H= D;
-		
-		double fact = -D[iS][jE];
-		
-		for(int j=0;j<=nbNonBasicVar;j++) {
-			
-			H[iS][j]= D[iS][j]/fact;
+		final double[][] D = this.D;
+		final int width = nbNonBasicVar + 1; // length of a row of D
+		final double[] rowS = D[iS];
+		final double fact = -rowS[jE];
+		// the steepest edge weights are updated with the changes of the squares of the coefficients
+		final double[] w = method == EnteringMethod.STEEPEST_EDGE ? weights : null;
+		final double devexWeight = method == EnteringMethod.DEVEX && weights != null ? weights[jE] : 0;
+
+		// the pivot row gives the expression of the entering variable
+		if (w != null) {
+			for (int l = 1; l < width; l++) {
+				double old = rowS[l];
+				double v = old / fact;
+				rowS[l] = v;
+				w[l] += v * v - old * old;
+			}
+			rowS[0] /= fact;
 		}
-		
-		H[iS][jE]= -1/fact;
-		
-		for (int k=0; k< iS;k++) {
-			
-			for (int l=0; l< jE;l++) {
-				
-				H[k][l] = D[k][l]+ D[k][jE]*H[iS][l];
+		else for (int l = 0; l < width; l++) rowS[l] /= fact;
+		rowS[jE] = -1 / fact;
+
+		// nonzero patterns of the pivot row (column jE excepted) and of the column jE (row iS excepted):
+		// only the coefficients at their intersections change
+		if (rowPattern == null || rowPattern.length < width) rowPattern = new int[width];
+		if (columnPattern == null || columnPattern.length <= nbBasicVar) {
+			columnPattern = new int[nbBasicVar + 1];
+			columnValues = new double[nbBasicVar + 1];
+		}
+		int nnzRow = 0;
+		for (int l = 0; l < width; l++)
+			if (l != jE && rowS[l] != 0) rowPattern[nnzRow++] = l;
+		int nnzColumn = 0;
+		for (int k = 0; k <= nbBasicVar; k++) {
+			double coef = D[k][jE];
+			if (k == iS || coef == 0) continue;
+			columnPattern[nnzColumn] = k;
+			columnValues[nnzColumn++] = coef;
+		}
+		final int[] columns = nnzRow <= SPARSE_DENSITY * width ? rowPattern : null;
+		final int nbColumns = columns != null ? nnzRow : width;
+
+		// substitution of the entering variable in the other rows
+		if (parallel && (long) nnzColumn * nbColumns >= parallelThreshold) {
+			ForkJoinPool p = pool != null ? pool : ForkJoinPool.commonPool();
+			if (w == null) p.invoke(new PivotTask(iS, jE, 0, nnzColumn, true, columns, nbColumns));
+			// the weights are summed row after row: the tasks share the columns, not the rows,
+			// so that each weight receives its updates in the same order as sequentially
+			else p.invoke(new PivotTask(iS, jE, 0, width, false, null, nnzColumn));
+		}
+		else updateRows(iS, jE, 0, nnzColumn, w, columns, nbColumns);
+
+		if (columns != null && devexWeight != 0) {
+			for (int t = 0; t < nnzRow; t++) {
+				int l = rowPattern[t];
+				if (l == 0) continue;
+				double r = rowS[l];
+				weights[l] = Math.max(weights[l], r * r * devexWeight);
 			}
-			
-			H[k][jE]= D[k][jE]*(-1/fact);
-			
-			for (int l=jE+1; l<=nbNonBasicVar;l++) {
-				
-				H[k][l] = D[k][l]+ D[k][jE]*H[iS][l];
+			double r = rowS[jE];
+			weights[jE] = Math.max(devexWeight * r * r, 1);
+		}
+		if (w != null) {
+			// the column jE is new: its weight is computed directly
+			if (++pivotsSinceWeights >= WEIGHTS_REFRESH) initWeights();
+			else {
+				double gamma = 1;
+				for (int k = 1; k <= nbBasicVar; k++) gamma += D[k][jE] * D[k][jE];
+				w[jE] = gamma;
 			}
-			
-			
 		}
-		
-		for (int k=iS+1; k<=nbBasicVar;k++) {
-			
-			
-			for (int l=0; l< jE;l++) {
-				
-				H[k][l] = D[k][l]+ D[k][jE]*H[iS][l];
+		else if (devexWeight != 0 && columns == null) {
+			// Devex: after the pivot, D[iS][l]^2 is (alpha_l / alpha_jE)^2 for l != jE, and D[iS][jE]^2 is 1 / alpha_jE^2
+			for (int l = 1; l < width; l++) {
+				double r = rowS[l];
+				weights[l] = Math.max(weights[l], r * r * devexWeight);
 			}
-			
-			H[k][jE]= D[k][jE]*(-1/fact);
-			
-			for (int l=jE+1; l<=nbNonBasicVar;l++) {
-				
-				H[k][l] = D[k][l]+ D[k][jE]*H[iS][l];
+			double r = rowS[jE];
+			weights[jE] = Math.max(devexWeight * r * r, 1);
+		}
+
+		int num = arrayBasicVar[iS];
+		arrayBasicVar[iS] = arrayNonBasicVar[jE];
+		arrayNonBasicVar[jE] = num;
+		if (complemented != null && complemented[arrayBasicVar[iS]]) complementRow(iS);
+	}
+
+	/**
+	 * Substitution of the entering variable in the rows columnPattern[from] to columnPattern[to - 1],
+	 * once the pivot row iS has been rewritten.
+	 * @param w the steepest edge weights to update, null if none
+	 * @param columns the columns to update (the column jE excepted), null for every column
+	 * @param nbColumns the number of columns in columns
+	 */
+	private void updateRows(int iS, int jE, int from, int to, double[] w, int[] columns, int nbColumns) {
+		final double[][] D = this.D;
+		final int width = nbNonBasicVar + 1; // length of a row of D
+		final double[] rowS = D[iS];
+		for (int t = from; t < to; t++) {
+			int k = columnPattern[t];
+			double[] rowK = D[k];
+			double coef = columnValues[t];
+			if (columns != null) {
+				// hypersparse pivot row: only its non null coefficients are used
+				for (int c = 0; c < nbColumns; c++) {
+					int l = columns[c];
+					double old = rowK[l];
+					double v = old + coef * rowS[l];
+					rowK[l] = v;
+					if (w != null && k > 0) w[l] += v * v - old * old;
+				}
 			}
+			else if (w != null && k > 0) {
+				for (int l = 0; l < width; l++) {
+					double old = rowK[l];
+					double v = old + coef * rowS[l];
+					rowK[l] = v;
+					w[l] += v * v - old * old;
+				}
+			}
+			else for (int l = 0; l < width; l++) rowK[l] += coef * rowS[l];
+			rowK[jE] = coef * rowS[jE];
+		}
+	}
+
+	/**
+	 * Same substitution restricted to the columns from to to - 1, in the nbRows rows of columnPattern,
+	 * with the steepest edge weights of these columns.
+	 */
+	private void updateColumns(int iS, int jE, int from, int to, int nbRows) {
+		final double[][] D = this.D;
+		final int width = nbNonBasicVar + 1; // length of a row of D
+		final double[] rowS = D[iS];
+		final double[] w = weights;
+		for (int t = 0; t < nbRows; t++) {
+			int k = columnPattern[t];
+			double coef = columnValues[t];
+			double[] rowK = D[k];
+			if (k > 0) {
+				for (int l = from; l < to; l++) {
+					double old = rowK[l];
+					double v = old + coef * rowS[l];
+					rowK[l] = v;
+					w[l] += v * v - old * old;
+				}
+			}
+			else for (int l = from; l < to; l++) rowK[l] += coef * rowS[l];
+			if (jE >= from && jE < to) rowK[jE] = coef * rowS[jE];
 		}
-		
-		D = H;
-		
 	}
 
+	// a part of the substitution of a parallel pivot, split in two until it is small enough
+	private class PivotTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int iS, jE, from, to;
+		private final boolean byRows; // from and to are positions in columnPattern if true, columns otherwise
+		private final int[] columns;
+		private final int count; // number of columns by row, or number of rows by column
+
+		PivotTask(int iS, int jE, int from, int to, boolean byRows, int[] columns, int count) {
+			this.iS = iS;
+			this.jE = jE;
+			this.from = from;
+			this.to = to;
+			this.byRows = byRows;
+			this.columns = columns;
+			this.count = count;
+		}
+
+		@Override
+		protected void compute() {
+			if ((long) (to - from) * count <= PARALLEL_GRAIN || to - from < 2) {
+				if (byRows) updateRows(iS, jE, from, to, null, columns, count);
+				else updateColumns(iS, jE, from, to, count);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new PivotTask(iS, jE, from, middle, byRows, columns, count),
+					new PivotTask(iS, jE, middle, to, byRows, columns, count));
+		}
+	}
+
+	/**
+	 * A non-basic variable at one of its bounds goes to the other one: in the column jE,
+	 * x_j is replaced by u_j - x_j (or conversely).
+	 * @param jE the index in arrayNonBasicVar of the variable
+	 */
+	public void complementColumn(int jE) {
+		int num = arrayNonBasicVar[jE];
+		double u = getUpperBound(num);
+		for (int k = 0; k <= nbBasicVar; k++) {
+			double[] rowK = D[k];
+			rowK[0] += rowK[jE] * u;
+			rowK[jE] = -rowK[jE];
+		}
+		complemented[num] = !complemented[num];
+	}
+
+	/**
+	 * The row iS expresses x'_j = u_j - x_j or x_j: it is rewritten for the other one.
+	 * @param iS the index in arrayBasicVar of the variable
+	 */
+	public void complementRow(int iS) {
+		int num = arrayBasicVar[iS];
+		double[] rowS = D[iS];
+		rowS[0] = getUpperBound(num) - rowS[0];
+		for (int l = 1; l <= nbNonBasicVar; l++) rowS[l] = -rowS[l];
+		complemented[num] = !complemented[num];
+	}
 
 	/**
 	 * TO IMPLEMENT; look for an entering variable of greatest coefficient in the objective function of the current dictionary.
@@ -276,7 +538,7 @@ public class Dictionary extends Observable {
 	 */
 	public int searchIndexEnteringVariableGreatestCoeff() {	
 		// Two following lines to delete
-		Simplex.output.println("Method searchIndexEnteringVariableGreatestCoeff to write");
+		context.getListener().message("Method searchIndexEnteringVariableGreatestCoeff to write");
 		incomplete = true;
 		
 		// To modify
@@ -295,7 +557,7 @@ public class Dictionary extends Observable {
 	 */
 	public int searchEnteringAdvantageousVariableIndex() {	
 		// Two following lines to delete
-		Simplex.output.println("Method searchEnteringAdvantageousVariableIndex to write");
+		context.getListener().message("Method searchEnteringAdvantageousVariableIndex to write");
 		incomplete = true;
 		
 		// To modify
@@ -303,7 +565,7 @@ public class Dictionary extends Observable {
 	}
 
 	/**
-	 * TO IMPLEMENT: look for the index of the entering variable of smallest number (the variable x_i
+	 * Looks for the index of the entering variable of smallest number (the variable x_i
 	 * has number i). Serves when using Bland's rule.
 	 * For example, if arrayNonBasicVar contains from index 1 the numbers 6, 7, 2, 3, 5 and if the variables
 	 * candidate to enter are the variables of indices 2 and 4 (arrayNonBasicVar[2] is 7, arrayNonBasicVar[4] is 3), 
@@ -312,37 +574,47 @@ public class Dictionary extends Observable {
 	 * <br> Otherwise, returns 0.
 	 */
 	public int searchIndexEnteringVariableSmallestNumber(){		
-		// Two following lines to delete
-		Simplex.output.println("Method searchIndexEnteringVariableSmallestNumber to write");
-		incomplete = true;
-		
-		// To modify
-		return 0;
+		int jE = 0;
+		for (int j = 1; j <= nbNonBasicVar; j++)
+			if (D[0][j] > context.dualTolerance && (jE == 0 || arrayNonBasicVar[j] < arrayNonBasicVar[jE])) jE = j;
+		statistics.nbPricedColumns += nbNonBasicVar;
+		return jE;
 	}
 
 
 	/**
-	 * TO IMPLEMENT; an entering variable being chosen, look for the index of the leaving variable of smallest number
-	 * (the variable x_i has number i). Serves when using Bland's rule.
+	 * An entering variable being chosen, looks for the index of the leaving variable of smallest number
+	 * among the rows of smallest ratio (the variable x_i has number i). Serves when using Bland's rule.
 	 * For example, if arrayBasicVar contains from index 1 the numbers 4, 5, 1, 2, 7 and if the variables candidate to leave 
 	 * are the variables of indices 2 and 4 (arrayBasicVar[2] is 5, arrayBasicVar[4] is 2), the returned value  is 4.
-	 * @paramJE the index of the entering variable.
-	 * @return If the dictionary shows that the problem is not bounded, returns -1.
-	 * <br> else, returns the index of the leaving variable.
+	 * @param jE the index of the entering variable.
+	 * @return the same values as searchIndexLeavingVariable: 0 if the problem is not bounded, -1 if
+	 * the entering variable reaches its upper bound first.
 	 */
 	public int searchIndexLeavingVariableSmallestNumber(int jE) {		
-		// Two following lines to delete
-		Simplex.output.println("Method searchIndexLeavingVariableSmallestNumber to write");
-		incomplete = true;
-		
-		// To modify
-		return 0;
-		
-		
+		double min = getUpperBound(arrayNonBasicVar[jE]);
+		int iS = min == Double.POSITIVE_INFINITY ? 0 : -1;
+		leavingToUpper = false;
+		for (int i = 1; i <= nbBasicVar; i++) {
+			double a = D[i][jE];
+			if (a <= context.pivotTolerance && a >= -context.pivotTolerance) continue;
+			double ratio = ratio(i, a, 0);
+			if (ratio < min || (ratio == min && iS > 0 && arrayBasicVar[i] < arrayBasicVar[iS])) {
+				min = ratio;
+				iS = i;
+			}
+		}
+		if (iS > 0) leavingToUpper = D[iS][jE] > 0;
+		return iS;
 	}
 	// END OF METHODS TO COMPLETE
 	
 	public int searchIndexEnteringVariable(EnteringMethod methode){
+		boolean scored = methode == EnteringMethod.FIRST || methode == EnteringMethod.STEEPEST_EDGE
+				|| methode == EnteringMethod.DEVEX;
+		if (scored && candidateListSize > 1) return searchIndexEnteringVariableMultiple();
+		if (scored && pricingSegment > 0) return searchIndexEnteringVariablePartial();
+		statistics.nbPricedColumns += nbNonBasicVar;
 		switch(methode) {
 		case FIRST :
 			return searchFirstIndexEnteringVariable();
@@ -350,10 +622,188 @@ public class Dictionary extends Observable {
 			return searchIndexEnteringVariableGreatestCoeff();
 		case MORE_ADVANTAGEOUS  :
 			return searchEnteringAdvantageousVariableIndex();
+		case STEEPEST_EDGE :
+		case DEVEX :
+			return searchIndexEnteringVariableWeighted();
 		}
 		return 0;
 	}
 
+	/**
+	 * Pricing with weights (steepest edge or Devex): among the columns j such that D[0][j] > 0,
+	 * chooses the one which maximizes D[0][j]^2 / weight_j, i.e. the greatest increase of the
+	 * objective per unit of length of the edge followed.
+	 * @return the index in arrayNonBasicVar of the entering variable, 0 if there is none
+	 */
+	public int searchIndexEnteringVariableWeighted() {
+		if (weights == null) initWeights();
+		int jE = 0;
+		double best = 0;
+		for (int j = 1; j <= nbNonBasicVar; j++) {
+			double d = D[0][j];
+			if (d <= epsilon) continue;
+			double score = d * d / weights[j];
+			if (score > best) {
+				best = score;
+				jE = j;
+			}
+		}
+		return jE;
+	}
+
+	/**
+	 * Pricing score of the column j for the current method: 0 if the column cannot enter,
+	 * otherwise 1 for FIRST, so that the first candidate met is kept, and D[0][j]^2 / weight_j for
+	 * STEEPEST_EDGE and DEVEX.
+	 */
+	private double score(int j) {
+		double d = D[0][j];
+		if (d <= context.dualTolerance) return 0;
+		if (method == EnteringMethod.STEEPEST_EDGE || method == EnteringMethod.DEVEX) return d * d / weights[j];
+		return 1;
+	}
+
+	/**
+	 * Partial pricing: the columns are examined by segments of pricingSegment columns, in rotation
+	 * from the place where the previous search stopped. The search stops at the end of the first
+	 * segment containing a candidate; with FIRST, at the first candidate.
+	 * @return the index in arrayNonBasicVar of the entering variable, 0 if no column can enter
+	 */
+	public int searchIndexEnteringVariablePartial() {
+		if (weights == null && method != EnteringMethod.FIRST) initWeights();
+		int n = nbNonBasicVar;
+		int segment = Math.min(pricingSegment, n);
+		int j = pricingStart > n ? 1 : pricingStart;
+		int jE = 0;
+		double best = 0;
+		for (int scanned = 0; scanned < n; ) {
+			int length = Math.min(segment, n - scanned);
+			for (int t = 0; t < length; t++) {
+				double score = score(j);
+				if (score > best) {
+					best = score;
+					jE = j;
+					if (method == EnteringMethod.FIRST) {
+						statistics.nbPricedColumns += scanned + t + 1;
+						pricingStart = j == n ? 1 : j + 1;
+						return jE;
+					}
+				}
+				j = j == n ? 1 : j + 1;
+			}
+			scanned += length;
+			if (jE != 0) {
+				statistics.nbPricedColumns += scanned;
+				pricingStart = j;
+				return jE;
+			}
+		}
+		statistics.nbPricedColumns += n;
+		return 0;
+	}
+
+	/**
+	 * Multiple pricing: chooses the best column of the candidate list which is still attractive
+	 * (minor iteration). When the list is empty, a scan of the columns (partial if pricingSegment > 0)
+	 * fills it with the candidateListSize best columns (major iteration). With FIRST, every candidate
+	 * has the same score: the list keeps the first columns met, and the first one still attractive enters.
+	 * @return the index in arrayNonBasicVar of the entering variable, 0 if no column can enter
+	 */
+	public int searchIndexEnteringVariableMultiple() {
+		if (weights == null && method != EnteringMethod.FIRST) initWeights();
+		int jE = bestCandidate();
+		if (jE != 0) return jE;
+
+		// major iteration
+		statistics.nbMajorPricings++;
+		if (candidates == null || candidates.length != candidateListSize) {
+			candidates = new int[candidateListSize];
+			candidateNumbers = new int[candidateListSize];
+		}
+		nbCandidates = 0;
+		double[] scores = new double[candidateListSize];
+		int n = nbNonBasicVar;
+		int segment = pricingSegment > 0 ? Math.min(pricingSegment, n) : n;
+		int j = pricingStart > n ? 1 : pricingStart;
+		for (int scanned = 0; scanned < n && nbCandidates == 0; ) {
+			int length = Math.min(segment, n - scanned);
+			for (int t = 0; t < length; t++) {
+				double score = score(j);
+				if (score > 0) insertCandidate(j, score, scores);
+				j = j == n ? 1 : j + 1;
+			}
+			scanned += length;
+			statistics.nbPricedColumns += length;
+		}
+		pricingStart = j;
+		return bestCandidate();
+	}
+
+	// keeps the list sorted by decreasing score
+	private void insertCandidate(int j, double score, double[] scores) {
+		int k = nbCandidates < candidateListSize ? nbCandidates++ : candidateListSize;
+		if (k == candidateListSize) {
+			if (score <= scores[k - 1]) return;
+			k--;
+		}
+		while (k > 0 && scores[k - 1] < score) {
+			scores[k] = scores[k - 1];
+			candidates[k] = candidates[k - 1];
+			candidateNumbers[k] = candidateNumbers[k - 1];
+			k--;
+		}
+		scores[k] = score;
+		candidates[k] = j;
+		candidateNumbers[k] = arrayNonBasicVar[j];
+	}
+
+	// removes the candidates which are no longer attractive and returns the best one, 0 if none
+	private int bestCandidate() {
+		int jE = 0;
+		double best = 0;
+		int kept = 0;
+		for (int k = 0; k < nbCandidates; k++) {
+			int j = candidates[k];
+			if (arrayNonBasicVar[j] != candidateNumbers[k]) continue; // has left the column by a pivot
+			double score = score(j);
+			statistics.nbPricedColumns++;
+			if (score <= 0) continue;
+			candidates[kept] = j;
+			candidateNumbers[kept] = candidateNumbers[k];
+			kept++;
+			if (score > best) {
+				best = score;
+				jE = j;
+			}
+		}
+		nbCandidates = kept;
+		return jE;
+	}
+
+	/**
+	 * Computes the initial weights: for STEEPEST_EDGE, the exact weights 1 + sum of D[i][j]^2 for i >= 1;
+	 * for DEVEX, the reference framework is the set of the current non-basic variables and every weight is 1.
+	 */
+	public void initWeights() {
+		weights = new double[nbNonBasicVar + 1];
+		if (method == EnteringMethod.STEEPEST_EDGE) {
+			java.util.Arrays.fill(weights, 1);
+			for (int i = 1; i <= nbBasicVar; i++) {
+				double[] rowI = D[i];
+				for (int j = 1; j <= nbNonBasicVar; j++) weights[j] += rowI[j] * rowI[j];
+			}
+			pivotsSinceWeights = 0;
+		}
+		else java.util.Arrays.fill(weights, 1);
+	}
+
+	/**
+	 * @return the pricing weights, null if they are not used
+	 */
+	public double[] getWeights() {
+		return weights;
+	}
+
 
 	/**
 	 * Performs a step in the simplex method.
@@ -366,7 +816,12 @@ public class Dictionary extends Observable {
 		int jE;
 
 		if (incomplete) return;
-		jE = searchIndexEnteringVariable(method);
+		if (algorithm == SimplexAlgorithm.DUAL) {
+			dualOneStep();
+			return;
+		}
+		if (context.getCycleMemory() > 0) detectCycle();
+		jE = antiCycling ? searchIndexEnteringVariableSmallestNumber() : searchIndexEnteringVariable(method);
 		if (incomplete) {
 			return;
 		}
@@ -384,42 +839,182 @@ public class Dictionary extends Observable {
 	public void oneStep(int jE) {
 		int iS;
 		if (D[0][jE] <= 0) {			
-			Simplex.output.println("The variable indicated as entering is not correct");
+			context.getListener().message("The variable indicated as entering is not correct");
 			return;
 		}
-		iS = searchIndexLeavingVariable(jE);
+		if (antiCycling) iS = searchIndexLeavingVariableSmallestNumber(jE);
+		else iS = harris ? searchIndexLeavingVariableHarris(jE) : searchIndexLeavingVariable(jE);
 		if (incomplete) return;
+		if (bland && iS > 0 && D[iS][0] == 0) {
+			jE = searchIndexEnteringVariableSmallestNumber();
+			if (incomplete) return;
+			if (jE == 0) {
+				optimal = true;
+				return;
+			}
+			iS =  searchIndexLeavingVariableSmallestNumber(jE);
+			if (incomplete) return;
+		}
 		if (iS == 0) {
 			borned = false;
 		}
+		else if (iS == -1) {
+			int num = this.arrayNonBasicVar[jE];
+			complementColumn(jE);
+			statistics.nbBoundFlips++;
+			context.getListener().boundFlip(num, complemented[num]);
+			context.getListener().dictionary(this);
+		}
 		else {
-			if (bland  && D[iS][0] == 0) {
-				jE = searchIndexEnteringVariableSmallestNumber();
-				if (incomplete) return;
-				if (jE == 0) {
-					optimal = true;
-					return;
-				}
-				iS =  searchIndexLeavingVariableSmallestNumber(jE);
-				if (incomplete) return;
-				if (iS == 0) {
-					borned = false;
-					return;
-				}
-			}
-			Simplex.output.println("\nEntering variable: x" + this.arrayNonBasicVar[jE]);
-			Simplex.output.println("Leaving variable : x" + this.arrayBasicVar[iS]);
+			context.getListener().pivot(this.arrayNonBasicVar[jE], this.arrayBasicVar[iS]);
 			oneStep(jE, iS);
 		}
 	}
 
+	/**
+	 * Key of the current vertex: the basic variables and the non-basic variables at their upper bound.
+	 * Each variable has a random key (Zobrist) and the key of the vertex is the exclusive or of the keys
+	 * of its variables, so that it does not depend on the order of the rows and columns.
+	 */
+	public long basisKey() {
+		long key = 0;
+		for (int i = 1; i <= nbBasicVar; i++) key ^= variableKey(2L * arrayBasicVar[i]);
+		if (complemented != null)
+			for (int j = 1; j <= nbNonBasicVar; j++)
+				if (complemented[arrayNonBasicVar[j]]) key ^= variableKey(2L * arrayNonBasicVar[j] + 1);
+		return key;
+	}
+
+	// a pseudo-random key for each number (finalizer of SplitMix64)
+	private static long variableKey(long num) {
+		long z = (num + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/*
+	 * Called before each step of the primal simplex. The objective does not decrease: a basis can only be
+	 * met again while it stays the same, so the ring is emptied when it increases, and Bland's rule,
+	 * which cannot cycle, is abandoned.
+	 */
+	private void detectCycle() {
+		double z = D[0][0];
+		if (z > lastObjective + context.primalTolerance) {
+			lastObjective = z;
+			nbRecentBases = 0;
+			if (antiCycling) {
+				antiCycling = false;
+				context.getListener().message("The objective increases: end of the Bland's rule\n");
+			}
+		}
+		if (antiCycling) return;
+		int size = context.getCycleMemory();
+		if (recentBases == null || recentBases.length != size) {
+			recentBases = new long[size];
+			nbRecentBases = 0;
+		}
+		long key = basisKey();
+		for (int k = 0; k < nbRecentBases; k++) {
+			if (recentBases[k] == key) {
+				antiCycling = true;
+				statistics.nbCycles++;
+				context.getListener().message("A basis is met again: the Bland's rule is applied until the objective increases\n");
+				return;
+			}
+		}
+		if (nextRecentBase >= size) nextRecentBase = 0;
+		recentBases[nextRecentBase++] = key;
+		if (nbRecentBases < size) nbRecentBases++;
+	}
+
 
 	public void oneStep(int jE, int iS) {
 		pivote(iS, jE);
+		statistics.nbPivots++;
 		if (incomplete) return;
-		Simplex.output.displayDictionary(this);
+		if (leavingToUpper) {
+			complementColumn(jE);
+			leavingToUpper = false;
+		}
+		context.getListener().dictionary(this);
+	}
+
+
+	/**
+	 * Determines if the dictionary is dual feasible, i.e. if no coefficient of the objective
+	 * function is strictly positive.
+	 */
+	public boolean isDualFeasible() {
+		for (int j = 1; j <= nbNonBasicVar; j++)
+			if (D[0][j] > context.dualTolerance) return false;
+		return true;
+	}
+
+	/**
+	 * Dual simplex: looks for the leaving variable, the basic variable of most negative value.
+	 * @return the index in arrayBasicVar of the leaving variable, 0 if the dictionary is feasible
+	 */
+	public int searchIndexLeavingVariableDual() {
+		int iS = 0;
+		double min = -context.primalTolerance;
+		for (int i = 1; i <= nbBasicVar; i++) {
+			double constant = D[i][0];
+			// a basic variable above its upper bound has a negative complement
+			if (hasBounds()) constant = Math.min(constant, getUpperBound(arrayBasicVar[i]) - constant);
+			if (constant < min) {
+				min = constant;
+				iS = i;
+			}
+		}
+		return iS;
+	}
+
+	/**
+	 * Dual simplex: the leaving variable being chosen, looks for the entering variable by the dual
+	 * ratio test. The candidates are the columns j with D[iS][j] > 0 (increasing them increases the
+	 * leaving variable), and we keep the one which minimizes -D[0][j] / D[iS][j] so that the
+	 * objective row stays non positive.
+	 * @param iS the index in arrayBasicVar of the leaving variable
+	 * @return the index in arrayNonBasicVar of the entering variable, 0 if there is none, which shows
+	 * that the problem is not feasible
+	 */
+	public int searchIndexEnteringVariableDual(int iS) {
+		int jE = 0;
+		double min = 0;
+		double[] rowS = D[iS];
+		for (int j = 1; j <= nbNonBasicVar; j++) {
+			double a = rowS[j];
+			if (a <= context.pivotTolerance) continue;
+			double ratio = Math.max(-D[0][j], 0) / a;
+			if (jE == 0 || ratio < min) {
+				min = ratio;
+				jE = j;
+			}
+		}
+		return jE;
 	}
 
+	/**
+	 * Performs a step of the dual simplex method on a dual feasible dictionary.
+	 * If the dictionary is feasible, it is optimal: set the attribute "optimal" to true.
+	 * <br> If the leaving row has no candidate to enter, set the attribute "feasibleProblem" to false.
+	 */
+	public void dualOneStep() {
+		int iS = searchIndexLeavingVariableDual();
+		if (iS == 0) {
+			optimal = true;
+			return;
+		}
+		if (D[iS][0] >= 0) complementRow(iS); // it leaves at its upper bound
+		int jE = searchIndexEnteringVariableDual(iS);
+		if (jE == 0) {
+			feasibleProblem = false;
+			return;
+		}
+		context.getListener().pivot(this.arrayNonBasicVar[jE], this.arrayBasicVar[iS]);
+		oneStep(jE, iS);
+	}
 
 	/**
 	 * Caomputes a first dictionary, not feasible, for the first phase.
@@ -447,7 +1042,9 @@ public class Dictionary extends Observable {
 			if (dic.D[i][0] < 0) dic.D[i][dic.nbNonBasicVar] = 1;
 		}		
 		dic.D[0][dic.nbNonBasicVar] = -1;
-		Simplex.output.displayDictionary(dic);
+		dic.copyBounds(this);
+		dic.copySettings(this);
+		context.getListener().dictionary(dic);
 
 		return dic;
 	}
@@ -468,12 +1065,12 @@ public class Dictionary extends Observable {
 				iS = i;
 			}
 		}	
-		Simplex.output.println("Entering variable: x0");
-		Simplex.output.println("Leaving variable : x" + this.arrayBasicVar[iS]);
+		context.getListener().pivot(0, this.arrayBasicVar[iS]);
 		pivote(iS, this.nbNonBasicVar);
+		statistics.nbPivots++;
 		if (incomplete) return;
 
-		Simplex.output.displayDictionary(this);
+		context.getListener().dictionary(this);
 	}
 	/**
 	 * From a dictionary of the first phase (dictionary of the auxiliary problem) such as the value of the
@@ -498,7 +1095,16 @@ public class Dictionary extends Observable {
 				break;
 			}
 
-		if (columnX0 == 0) return null;
+		if (columnX0 == 0) {
+			// x0 is basic with the value 0: a degenerate pivot makes it non-basic
+			int row0 = basicIndex(0);
+			int column0 = 0;
+			for (int j = 1; j <= nbNonBasicVar; j++)
+				if (column0 == 0 || Math.abs(D[row0][j]) > Math.abs(D[row0][column0])) column0 = j;
+			if (row0 == 0 || isNull(D[row0][column0])) return null;
+			pivote(row0, column0);
+			columnX0 = column0;
+		}
 		// Init of basic and non-basic variables
 		for (int j = 1; j < columnX0; j++) dict.arrayNonBasicVar[j] = arrayNonBasicVar[j];
 		for (int j = columnX0; j < nbNonBasicVar; j++) dict.arrayNonBasicVar[j] = arrayNonBasicVar[j + 1];
@@ -515,6 +1121,8 @@ public class Dictionary extends Observable {
 		}
 
 		dict.D[0][0] = z0Initial;
+		dict.copyBounds(this);
+		dict.copySettings(this);
 		/* 
 		 * zInitial [j] is the coefficient in z of the variable of number j + 1 in the initial dictionary
 		 * We compute the contribution of zInitial [j] X_ (j + 1) in the new z
@@ -525,7 +1133,11 @@ public class Dictionary extends Observable {
 
 			if (row == 0) {
 				column = dict.nonBasicIndex(variable);
-				dict.D[0][column] += zInitial[j]; 
+				if (dict.isComplemented(variable)) {
+					dict.D[0][0] += zInitial[j] * dict.getUpperBound(variable);
+					dict.D[0][column] -= zInitial[j];
+				}
+				else dict.D[0][column] += zInitial[j]; 
 			}
 			else {
 				multiplicator = zInitial[j];
@@ -533,8 +1145,8 @@ public class Dictionary extends Observable {
 					dict.D[0][k] += multiplicator * dict.D[row][k];
 			}
 		}	
-		Simplex.output.println("Feasible dictionary for the initial problem:");
-		Simplex.output.displayDictionary(dict);
+		context.getListener().message("Feasible dictionary for the initial problem:");
+		context.getListener().dictionary(dict);
 		return dict;
 	}
 
@@ -620,7 +1232,7 @@ public class Dictionary extends Observable {
 			}
 			col++;
 		}
-		Simplex.output.println(B.toString());
+		context.getListener().message(B.toString());
 		return B;
 	}
 
@@ -661,68 +1273,401 @@ public class Dictionary extends Observable {
 		When we talk about index, it will always be indexes in arrays and not variable indices.
 	 */
 	public void readFile(File file) throws IOException {
-		Scanner reader ;
-
-		reader = new Scanner(file);
+		load(new Problem(file));
+	}
 
-		reader.useLocale(Locale.FRANCE);
-		nbNonBasicVar = reader.nextInt();
-		nbBasicVar = reader.nextInt();
+	/**
+	 * Initializes the dictionary of the basis of the slack variables of a problem.
+	 * A variable x_j with lower bound l_j is replaced in D by x_j - l_j.
+	 */
+	private void load(Problem problem) {
+		nbNonBasicVar = problem.nbVariables;
+		nbBasicVar = problem.nbConstraints;
 		allocate();
 		for (int i = 1; i <= nbBasicVar; i++) {
 			arrayBasicVar[i] = nbNonBasicVar + i;
 			for (int j = 1; j <= nbNonBasicVar; j++)  
-				D[i][j] = -reader.nextDouble();
-			D[i][0] = reader.nextDouble();
+				D[i][j] = -problem.a[i - 1][j - 1];
+			D[i][0] = problem.b[i - 1];
 		}
-		D[0][0] = 0;
+		D[0][0] = problem.z0;
+		costs = new double[nbNonBasicVar + 1];
+		rhs = new double[nbBasicVar + 1];
+		for (int j = 1; j <= nbNonBasicVar; j++) costs[j] = problem.c[j - 1];
+		for (int i = 1; i <= nbBasicVar; i++) rhs[i] = problem.b[i - 1];
 		for (int j = 1; j <= nbNonBasicVar; j++) {
 			arrayNonBasicVar[j] = j;
-			D[0][j] = reader.nextDouble();
+			D[0][j] = problem.c[j - 1];
+		}
+		if (!problem.hasBounds()) return;
+		int nbVar = nbNonBasicVar + nbBasicVar;
+		upperBound = new double[nbVar + 1];
+		lowerBound = new double[nbVar + 1];
+		complemented = new boolean[nbVar + 1];
+		java.util.Arrays.fill(upperBound, Double.POSITIVE_INFINITY);
+		for (int j = 1; j <= nbNonBasicVar; j++) {
+			double lower = problem.lower[j - 1];
+			lowerBound[j] = lower;
+			upperBound[j] = problem.upper[j - 1] - lower;
+			if (lower != 0)
+				for (int i = 0; i <= nbBasicVar; i++) D[i][0] += D[i][j] * lower;
 		}
-		reader.close();
+	}
+
+	/**
+	 * Copies the bounds and the complemented variables of another dictionary on the same variables.
+	 */
+	public void copyBounds(Dictionary dict) {
+		copyBounds(dict, true);
+	}
+
+	/**
+	 * Copies the bounds of another dictionary on the same variables.
+	 * @param withComplemented if false, every non-basic variable of this dictionary is at its lower bound
+	 */
+	public void copyBounds(Dictionary dict, boolean withComplemented) {
+		if (!dict.hasBounds()) return;
+		upperBound = dict.upperBound.clone();
+		lowerBound = dict.lowerBound.clone();
+		complemented = withComplemented ? dict.complemented.clone() : new boolean[dict.complemented.length];
+	}
+
+	/**
+	 * Takes the settings of another dictionary of the same resolution: pricing parameters and statistics.
+	 */
+	public void copySettings(Dictionary dict) {
+		pricingSegment = dict.pricingSegment;
+		candidateListSize = dict.candidateListSize;
+		context = dict.context;
+		harris = dict.harris;
+		presolve = dict.presolve;
+		scaling = dict.scaling;
+		if (dict.costs != null) costs = dict.costs.clone();
+		if (dict.rhs != null) rhs = dict.rhs.clone();
+		parallel = dict.parallel;
+		parallelThreshold = dict.parallelThreshold;
+		pool = dict.pool;
+		statistics = dict.statistics;
+		statistics.pricingSegment = pricingSegment;
+		statistics.candidateListSize = candidateListSize;
+	}
+
+	/**
+	 * @return true if at least one variable has bounds other than 0 and infinity
+	 */
+	public boolean hasBounds() {
+		return upperBound != null;
+	}
+
+	/**
+	 * @return the upper bound of the variable of number num, after the translation of its lower bound
+	 */
+	public double getUpperBound(int num) {
+		if (upperBound == null || num >= upperBound.length) return Double.POSITIVE_INFINITY;
+		return upperBound[num];
+	}
+
+	public boolean isComplemented(int num) {
+		return complemented != null && num < complemented.length && complemented[num];
+	}
+
+	/**
+	 * Computes the values of the variables in the basic solution of the dictionary,
+	 * taking into account the bounds.
+	 * @return the values, the variable of number num being at index num; if the problem comes
+	 * from a presolve, these are the variables of the original problem
+	 */
+	public double[] getSolution() {
+		double[] solution = new double[nbNonBasicVar + nbBasicVar + 1];
+		for (int j = 1; j <= nbNonBasicVar; j++) {
+			int num = arrayNonBasicVar[j];
+			if (num < solution.length && isComplemented(num)) solution[num] = getUpperBound(num);
+		}
+		for (int i = 1; i <= nbBasicVar; i++) 
+			if (arrayBasicVar[i] < solution.length) solution[arrayBasicVar[i]] = D[i][0];
+		if (lowerBound != null)
+			for (int num = 1; num < solution.length && num < lowerBound.length; num++) solution[num] += lowerBound[num];
+		if (scaling != null) solution = scaling.unscaleSolution(solution);
+		if (presolve != null) return presolve.postsolve(solution);
+		return solution;
+	}
+
+	/**
+	 * @return the dual values of the constraints, y_i being at index i: the opposite of the coefficient
+	 * in the objective of the slack variable of the constraint i if it is non-basic, 0 otherwise.
+	 * If the problem comes from a scaling or a presolve, these are the dual values of the original constraints
+	 * (0 for the constraints removed by the presolve).
+	 */
+	public double[] getDuals() {
+		double[] y = new double[nbBasicVar + 1];
+		for (int j = 1; j <= nbNonBasicVar; j++) {
+			int num = arrayNonBasicVar[j];
+			if (num > nbNonBasicVar && num <= nbNonBasicVar + nbBasicVar) y[num - nbNonBasicVar] = -D[0][j];
+		}
+		if (scaling != null) y = scaling.unscaleDuals(y);
+		if (presolve != null) return presolve.postsolveDuals(y);
+		return y;
+	}
+
+	//----------------------------------------------//
+	// MODIFICATIONS IN MEMORY //
+	//----------------------------------------------//
+	// The following methods modify the problem of a dictionary of the second phase (for instance
+	// optimal) and rewrite the dictionary in the current basis, so that a few pivots reoptimize it.
+	// The variables and constraints are those of the problem of the dictionary (without presolve nor
+	// scaling). After a modification, the algorithm is PRIMAL if the dictionary is feasible and DUAL
+	// if it is only dual feasible; otherwise the first phase is needed.
+
+	// the modifications need the problem of the dictionary and a dictionary of the second phase
+	private void checkModifiable() {
+		if (basicIndex(0) != 0 || nonBasicIndex(0) != 0)
+			throw new IllegalStateException("A dictionary of the first phase cannot be modified");
+		if (presolve != null || scaling != null)
+			throw new IllegalStateException("The problem of the dictionary has been presolved or scaled");
+		if (costs == null || rhs == null)
+			throw new IllegalStateException("The dictionary does not know its problem");
+	}
+
+	// the value of the decision variable num is lower + (the row iS or the column jE)
+	private double lowerBound(int num) {
+		return lowerBound == null || num >= lowerBound.length ? 0 : lowerBound[num];
+	}
+
+	/**
+	 * Adds the constraint a x <= b; its slack variable, of number n + m + 1, is basic in the new row.
+	 * @param a the coefficients of the n decision variables, a[j - 1] for x_j
+	 * @param b the right hand side
+	 */
+	public void addConstraint(double[] a, double b) {
+		checkModifiable();
+		if (a.length != nbNonBasicVar) throw new IllegalArgumentException("The constraint must have " + nbNonBasicVar + " coefficients");
+		int row = nbBasicVar + 1;
+		D = java.util.Arrays.copyOf(D, row + 1);
+		D[row] = new double[nbNonBasicVar + 1];
+		arrayBasicVar = java.util.Arrays.copyOf(arrayBasicVar, row + 1);
+		arrayBasicVar[row] = nbNonBasicVar + row;
+		nbBasicVar = row;
+		rhs = java.util.Arrays.copyOf(rhs, row + 1);
+		rhs[row] = b;
+
+		// s = b - a x, where each x_j is replaced by its expression in the current dictionary
+		double[] rowS = D[row];
+		rowS[0] = b;
+		for (int num = 1; num <= a.length; num++) {
+			double aj = a[num - 1];
+			if (aj == 0) continue;
+			rowS[0] -= aj * lowerBound(num);
+			int i = basicIndex(num);
+			if (i != 0) {
+				for (int l = 0; l <= nbNonBasicVar; l++) rowS[l] -= aj * D[i][l];
+			}
+			else {
+				int j = nonBasicIndex(num);
+				if (isComplemented(num)) {
+					rowS[0] -= aj * getUpperBound(num);
+					rowS[j] += aj;
+				}
+				else rowS[j] -= aj;
+			}
+		}
+		if (upperBound != null) {
+			upperBound = java.util.Arrays.copyOf(upperBound, nbNonBasicVar + nbBasicVar + 1);
+			upperBound[nbNonBasicVar + nbBasicVar] = Double.POSITIVE_INFINITY;
+			lowerBound = java.util.Arrays.copyOf(lowerBound, upperBound.length);
+			complemented = java.util.Arrays.copyOf(complemented, upperBound.length);
+		}
+		modified();
+	}
+
+	/**
+	 * Adds a decision variable x_n+1, non-basic at 0, without bounds; the slack variables are renumbered
+	 * from n + 2 to n + m + 1.
+	 * @param a the coefficients of the variable in the m constraints, a[i - 1] for the constraint i
+	 * @param c the cost of the variable
+	 */
+	public void addVariable(double[] a, double c) {
+		checkModifiable();
+		if (a.length != nbBasicVar) throw new IllegalArgumentException("The variable must have " + nbBasicVar + " coefficients");
+		int n = nbNonBasicVar;
+		double[][] newD = new double[nbBasicVar + 1][];
+		for (int i = 0; i <= nbBasicVar; i++) newD[i] = java.util.Arrays.copyOf(D[i], n + 2);
+
+		// the slack variable s_i of the problem without x_n+1 is s_i + a_i x_n+1: the column of
+		// x_n+1 collects the columns of the non-basic slack variables and the rows of the basic ones
+		int col = n + 1;
+		newD[0][col] = c;
+		for (int i = 1; i <= nbBasicVar; i++) {
+			double ai = a[i - 1];
+			if (ai == 0) continue;
+			int slack = n + i;
+			int r = basicIndex(slack);
+			if (r != 0) newD[r][col] -= ai;
+			else {
+				int j = nonBasicIndex(slack);
+				for (int k = 0; k <= nbBasicVar; k++) newD[k][col] += ai * D[k][j];
+			}
+		}
+		D = newD;
+
+		for (int i = 1; i <= nbBasicVar; i++) if (arrayBasicVar[i] > n) arrayBasicVar[i]++;
+		for (int j = 1; j <= n; j++) if (arrayNonBasicVar[j] > n) arrayNonBasicVar[j]++;
+		arrayNonBasicVar = java.util.Arrays.copyOf(arrayNonBasicVar, n + 2);
+		arrayNonBasicVar[n + 1] = n + 1;
+		nbNonBasicVar = n + 1;
+		costs = java.util.Arrays.copyOf(costs, n + 2);
+		costs[n + 1] = c;
+		if (upperBound != null) {
+			upperBound = insert(upperBound, n + 1, Double.POSITIVE_INFINITY);
+			lowerBound = insert(lowerBound, n + 1, 0);
+			boolean[] shifted = new boolean[complemented.length + 1];
+			System.arraycopy(complemented, 0, shifted, 0, n + 1);
+			System.arraycopy(complemented, n + 1, shifted, n + 2, complemented.length - n - 1);
+			complemented = shifted;
+		}
+		modified();
+	}
+
+	// returns a copy of v with value inserted at index k
+	private static double[] insert(double[] v, int k, double value) {
+		double[] w = new double[v.length + 1];
+		System.arraycopy(v, 0, w, 0, k);
+		w[k] = value;
+		System.arraycopy(v, k, w, k + 1, v.length - k);
+		return w;
+	}
+
+	/**
+	 * Changes the cost of a decision variable.
+	 * @param num the number of the variable
+	 * @param c its new cost
+	 */
+	public void changeObjective(int num, double c) {
+		checkModifiable();
+		if (num < 1 || num > nbNonBasicVar) throw new IllegalArgumentException("Wrong decision variable: x" + num);
+		double delta = c - costs[num];
+		costs[num] = c;
+		// z gains delta x_num, x_num being replaced by its expression in the current dictionary
+		D[0][0] += delta * lowerBound(num);
+		int i = basicIndex(num);
+		if (i != 0) {
+			for (int l = 0; l <= nbNonBasicVar; l++) D[0][l] += delta * D[i][l];
+		}
+		else {
+			int j = nonBasicIndex(num);
+			if (isComplemented(num)) {
+				D[0][0] += delta * getUpperBound(num);
+				D[0][j] -= delta;
+			}
+			else D[0][j] += delta;
+		}
+		modified();
+	}
+
+	/**
+	 * Changes the right hand side of a constraint.
+	 * @param i the index of the constraint, from 1 (its slack variable is the variable n + i)
+	 * @param b its new right hand side
+	 */
+	public void changeRHS(int i, double b) {
+		checkModifiable();
+		if (i < 1 || i > nbBasicVar) throw new IllegalArgumentException("Wrong constraint: " + i);
+		double delta = b - rhs[i];
+		rhs[i] = b;
+		// the old slack variable is the new one minus delta
+		int slack = nbNonBasicVar + i;
+		int r = basicIndex(slack);
+		if (r != 0) D[r][0] += delta;
+		else {
+			int j = nonBasicIndex(slack);
+			for (int k = 0; k <= nbBasicVar; k++) D[k][0] -= delta * D[k][j];
+		}
+		modified();
+	}
+
+	// after a modification, the dictionary is to be reoptimized
+	private void modified() {
+		weights = null;
+		nbCandidates = 0;
+		optimal = false;
+		borned = true;
+		feasibleProblem = true;
+		nbRecentBases = 0;
+		lastObjective = Double.NEGATIVE_INFINITY;
+		antiCycling = false;
+		algorithm = !isFeasible() && isDualFeasible() ? SimplexAlgorithm.DUAL : SimplexAlgorithm.PRIMAL;
+	}
+
+	/**
+	 * @return the number of decision variables of the problem given by the user, before the presolve
+	 */
+	public int getNbDecisionVariables() {
+		return presolve != null ? presolve.getOriginal().getNbVariables() : nbNonBasicVar;
+	}
+
+	public Scaling getScaling() {
+		return scaling;
+	}
+
+	/**
+	 * @param scaling the scaling which has given the problem of this dictionary: the solutions and
+	 * the dual values are then unscaled
+	 */
+	public void setScaling(Scaling scaling) {
+		this.scaling = scaling;
+	}
+
+	public Presolve getPresolve() {
+		return presolve;
+	}
+
+	/**
+	 * @param presolve the presolve which has given the problem of this dictionary: the solutions
+	 * are then expressed with the variables of the original problem
+	 */
+	public void setPresolve(Presolve presolve) {
+		this.presolve = presolve;
 	}
 
 	public Dictionary(Matrix A, Matrix B, ArrayList<Integer> base, double [] b, double []zDeb, double z0Deb) {
 		ArrayList<Integer> columns = new ArrayList<Integer>();
-		Matrix BInv;
+		LUDecomposition lu;
 		int nb = base.size();
 		double[] cB, y;
 		
 		for (int x : base) columns.add(x - 1); // column contains the numbers of the basic variables decreased by 1
-		BInv = B.getInverseMatrix();
+		lu = B.getLU(); // B is never inverted, each product by its inverse is a solve
 		this.nbBasicVar = nb;
 		this.nbNonBasicVar = A.getNbColumns() - nb;
 		this.allocate();
 		
-		double [] constantes = BInv.rightProduct(b);
+		costs = new double[nbNonBasicVar + 1];
+		rhs = new double[nb + 1];
+		for (int j = 1; j <= nbNonBasicVar; j++) costs[j] = zDeb[j - 1];
+		for (int i = 1; i <= nb; i++) rhs[i] = b[i - 1];
+		double [] constantes = lu.solve(b);
 		for (int i = 1; i <= nb; i++) D[i][0] = constantes[i - 1];
 			
 		cB = new double[nb];
 		for (int i = 0; i < nb; i++) cB[i] = zDeb[columns.get(i)];
 		
 		D[0][0] = z0Deb + Matrix.product(cB, constantes);
-		y = BInv.leftProduct(cB);
+		y = lu.solveTranspose(cB);
 		
-		int indiceBase = 1;
 		int indiceHorsBase = 1;
+		// the rows of D follow the order of base, which is the order of the columns of B
+		for (int i = 1; i <= nb; i++) arrayBasicVar[i] = base.get(i - 1);
 		for (int j = 0; j < A.getNbColumns(); j++) {
-			if (columns.contains(j)) {
-				arrayBasicVar[indiceBase] = j + 1;
-				indiceBase++;
-				continue;
-			}
+			if (columns.contains(j)) continue;
 			double[] d;
 			double[] a;
 
 			arrayNonBasicVar[indiceHorsBase] = j + 1;
 			a = A.getColonne(j);
 			D[0][indiceHorsBase] = zDeb[j] - Matrix.product(y, a);
-			d = BInv.rightProduct(a);
+			d = lu.solve(a);
 			for (int i = 1; i <= nb; i++) D[i][indiceHorsBase] = -d[i - 1];
 			indiceHorsBase++;
 		}	
-		Simplex.output.displayDictionary(this);
 	}
 
 
@@ -747,11 +1692,107 @@ public class Dictionary extends Observable {
 	 */
 	public void setMethod(EnteringMethod method) {
 		this.method = method;
-		if (!isWritten) Simplex.output.println("We go to the method: " + method + "\n");
+		this.weights = null;
+		if (!isWritten) context.getListener().message("We go to the method: " + method + "\n");
 		isWritten = !isWritten;
 	}
 
 
+	public SolverContext getContext() {
+		return context;
+	}
+
+	/**
+	 * @param context the tolerances and the listener of the resolution, shared with the next dictionaries
+	 */
+	public void setContext(SolverContext context) {
+		this.context = context;
+	}
+
+	public int getPricingSegment() {
+		return pricingSegment;
+	}
+
+	/**
+	 * Enables partial pricing
+	 * @param pricingSegment the number of columns examined by segment, 0 to examine all of them
+	 */
+	public void setPricingSegment(int pricingSegment) {
+		this.pricingSegment = pricingSegment;
+		statistics.pricingSegment = pricingSegment;
+	}
+
+	public int getCandidateListSize() {
+		return candidateListSize;
+	}
+
+	/**
+	 * Enables multiple pricing
+	 * @param candidateListSize the number of candidates kept by a scan, 0 or 1 to disable it
+	 */
+	public void setCandidateListSize(int candidateListSize) {
+		this.candidateListSize = candidateListSize;
+		this.nbCandidates = 0;
+		statistics.candidateListSize = candidateListSize;
+	}
+
+	public boolean isHarris() {
+		return harris;
+	}
+
+	/**
+	 * @param harris true to use the ratio test of Harris instead of the textbook one
+	 */
+	public void setHarris(boolean harris) {
+		this.harris = harris;
+	}
+
+	public double getPrimalTolerance() {
+		return context.primalTolerance;
+	}
+
+	public double getDualTolerance() {
+		return context.dualTolerance;
+	}
+
+	public double getPivotTolerance() {
+		return context.pivotTolerance;
+	}
+
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Enables the parallel pivot, which gives the same dictionaries as the sequential one
+	 * @param parallel true to share the pivots between several threads
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/**
+	 * @param parallelThreshold the number of coefficients of D below which the pivots stay sequential
+	 */
+	public void setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * @param pool the pool of threads of the parallel pivots, null for the common pool
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	public SolveStatistics getStatistics() {
+		return statistics;
+	}
+
 	public boolean isBland() {
 		return bland;
 	}
@@ -768,13 +1809,13 @@ public class Dictionary extends Observable {
 			beginning = false;
 			return;
 		}
-		if (bland) Simplex.output.println("We use the criterion of Bland\n");
-		else Simplex.output.println("We no longer use the Bland criterion\n");
+		if (bland) context.getListener().message("We use the criterion of Bland\n");
+		else context.getListener().message("We no longer use the Bland criterion\n");
 	}
 
 	public boolean isOptimal() {
 		for (int j = 1; j <= this.nbNonBasicVar; j++)
-			if (D[0][j] > 0) return false;
+			if (D[0][j] > context.dualTolerance) return false;
 		return true;
 	}
 
@@ -782,6 +1823,27 @@ public class Dictionary extends Observable {
 		return borned;
 	}
 
+	/**
+	 * @return false if a step of the dual simplex has shown that the problem has no feasible solution
+	 */
+	public boolean isFeasibleProblem() {
+		return feasibleProblem;
+	}
+
+	public SimplexAlgorithm getAlgorithm() {
+		return algorithm;
+	}
+
+	/**
+	 * Enables to choose between the primal and the dual simplex for the next steps.
+	 * The dual simplex requires a dual feasible dictionary.
+	 * @param algorithm the algorithm applied by oneStep
+	 */
+	public void setAlgorithm(SimplexAlgorithm algorithm) {
+		this.algorithm = algorithm;
+		optimal = false;
+	}
+
 	public int getNbNonBasic() {
 		return nbNonBasicVar;
 	}
@@ -798,8 +1860,23 @@ public class Dictionary extends Observable {
 		return arrayNonBasicVar;
 	}
 
+	public double getCoefficient(int i, int j) {
+		return D[i][j];
+	}
+
+	public void setCoefficient(int i, int j, double value) {
+		D[i][j] = value;
+	}
+
+	/**
+	 * @return a copy of the coefficients as a double[][]; 
+	 * prefer getCoefficient which does not allocate
+	 */
 	public double[][] getD() {
-		return D;
+		double[][] copy = new double[nbBasicVar + 1][];
+		for (int i = 0; i <= nbBasicVar; i++) 
+			copy[i] = D[i].clone();
+		return copy;
 	}
 	
 	public boolean isIncomplete() {
@@ -0,0 +1,146 @@
+package simplex;
+
+/**
+ * Copy of a dictionary at one step, which can be read by another thread (the one of the window) while
+ * the resolution goes on. Only the numbers and the coefficients are copied: it is done in O(m n), much
+ * less than the formatting of the dictionary as a text. A snapshot not read can be filled again by copy,
+ * without allocation if the size of the dictionary has not changed.
+ */
+public class DictionarySnapshot {
+	private int nbBasic, nbNonBasic;
+	private int[] basicVar; // index 1 to nbBasic
+	private int[] nonBasicVar; // index 1 to nbNonBasic
+	private boolean[] complemented; // of the non-basic variable of each column
+	private double[] coefficients; // (nbBasic + 1) x (nbNonBasic + 1), row by row
+	private boolean phase1;
+	private boolean bounds;
+	int sequence; // the number of the dictionary in the resolution, given by Viewing
+
+	public DictionarySnapshot(Dictionary dict) {
+		copy(dict);
+	}
+
+	/**
+	 * Copies the dictionary, in the arrays of this snapshot if they have the right sizes.
+	 */
+	void copy(Dictionary dict) {
+		int m = dict.getNbBasic(), n = dict.getNbNonBasic();
+		if (coefficients == null || m != nbBasic || n != nbNonBasic) {
+			basicVar = new int[m + 1];
+			nonBasicVar = new int[n + 1];
+			complemented = new boolean[n + 1];
+			coefficients = new double[(m + 1) * (n + 1)];
+		}
+		nbBasic = m;
+		nbNonBasic = n;
+		System.arraycopy(dict.getBasicVar(), 0, basicVar, 0, m + 1);
+		System.arraycopy(dict.getNonBasicVar(), 0, nonBasicVar, 0, n + 1);
+		for (int j = 1; j <= n; j++) complemented[j] = dict.isComplemented(nonBasicVar[j]);
+		for (int i = 0, k = 0; i <= m; i++)
+			for (int j = 0; j <= n; j++) coefficients[k++] = dict.getCoefficient(i, j);
+		phase1 = dict.basicIndex(0) != 0 || dict.nonBasicIndex(0) != 0;
+		bounds = dict.hasBounds();
+	}
+
+	/**
+	 * A snapshot read in a trace (see TraceViewer).
+	 */
+	DictionarySnapshot(int[] basicVar, int[] nonBasicVar, boolean[] complemented, double[] coefficients,
+			boolean phase1, boolean bounds) {
+		nbBasic = basicVar.length - 1;
+		nbNonBasic = nonBasicVar.length - 1;
+		this.basicVar = basicVar;
+		this.nonBasicVar = nonBasicVar;
+		this.complemented = complemented;
+		this.coefficients = coefficients;
+		this.phase1 = phase1;
+		this.bounds = bounds;
+	}
+
+	public int getNbBasic() {
+		return nbBasic;
+	}
+
+	public int getNbNonBasic() {
+		return nbNonBasic;
+	}
+
+	/**
+	 * @return the number of the basic variable of the row i, from 1
+	 */
+	public int getBasicVar(int i) {
+		return basicVar[i];
+	}
+
+	/**
+	 * @return the number of the non-basic variable of the column j, from 1
+	 */
+	public int getNonBasicVar(int j) {
+		return nonBasicVar[j];
+	}
+
+	/**
+	 * @return true if the non-basic variable of the column j is replaced by upper bound - x
+	 */
+	public boolean isComplemented(int j) {
+		return complemented[j];
+	}
+
+	/**
+	 * @return the coefficient of the row i (0 for the objective) and of the column j (0 for the constants)
+	 */
+	public double getCoefficient(int i, int j) {
+		return coefficients[i * (nbNonBasic + 1) + j];
+	}
+
+	/**
+	 * @return the value of the objective
+	 */
+	public double getObjective() {
+		return coefficients[0];
+	}
+
+	/**
+	 * @return true if the dictionary is one of the first phase, of objective w
+	 */
+	public boolean isPhase1() {
+		return phase1;
+	}
+
+	public boolean hasBounds() {
+		return bounds;
+	}
+
+	// the row i (0 for the objective) as Viewing writes it
+	private void appendRow(StringBuilder out, int i) {
+		if (Dictionary.isNull(getCoefficient(i, 0))) out.append(String.format("%6s", " "));
+		else out.append(String.format("%6.2f", getCoefficient(i, 0)));
+		for (int j = 1; j <= nbNonBasic; j++) {
+			double a = getCoefficient(i, j);
+			if (Dictionary.isNull(a)) out.append(String.format("%11s", " "));
+			else {
+				out.append(a >= 0 ? " + " : " - ");
+				out.append(String.format("%5.2f", Math.abs(a)));
+				out.append(" x" + nonBasicVar[j]);
+				if (complemented[j]) out.append("'");
+			}
+		}
+		out.append("\n");
+	}
+
+	/**
+	 * @return the dictionary, one row per basic variable then the objective
+	 */
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder();
+		for (int i = 1; i <= nbBasic; i++) {
+			out.append("x" + basicVar[i] + " = ");
+			appendRow(out, i);
+		}
+		out.append(phase1 ? "w  = " : "z  = ");
+		appendRow(out, 0);
+		if (bounds) out.append("(x' = upper bound - x)\n");
+		return out.toString();
+	}
+}
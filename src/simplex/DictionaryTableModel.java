@@ -0,0 +1,55 @@
+package simplex;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * The last displayed dictionary as a table: one row per basic variable then the objective, a column for
+ * the names of the basic variables, one for the constants and one per non-basic variable. The JTable
+ * asks only the cells it paints, so only the rows and the columns in view are formatted, whatever the
+ * size of the dictionary.
+ * <br> The model reads a DictionarySnapshot and not the Dictionary, which the solver changes in its own
+ * thread; it is used by the Event Dispatch Thread only.
+ */
+public class DictionaryTableModel extends AbstractTableModel {
+	private static final long serialVersionUID = 1L;
+	private DictionarySnapshot snapshot;
+
+	/**
+	 * Displays another dictionary; the columns are built again only if its size has changed.
+	 */
+	public void setSnapshot(DictionarySnapshot snapshot) {
+		boolean sameSize = this.snapshot != null && snapshot != null
+				&& this.snapshot.getNbBasic() == snapshot.getNbBasic()
+				&& this.snapshot.getNbNonBasic() == snapshot.getNbNonBasic();
+		this.snapshot = snapshot;
+		if (sameSize) fireTableDataChanged();
+		else fireTableStructureChanged();
+	}
+
+	public DictionarySnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	public int getRowCount() {
+		return snapshot == null ? 0 : snapshot.getNbBasic() + 1;
+	}
+
+	public int getColumnCount() {
+		return snapshot == null ? 0 : snapshot.getNbNonBasic() + 2;
+	}
+
+	@Override
+	public String getColumnName(int column) {
+		if (column == 0) return "";
+		if (column == 1) return "constant";
+		int j = column - 1;
+		return "x" + snapshot.getNonBasicVar(j) + (snapshot.isComplemented(j) ? "'" : "");
+	}
+
+	public Object getValueAt(int row, int column) {
+		int i = row == snapshot.getNbBasic() ? 0 : row + 1; // the objective in the last row
+		if (column == 0) return i == 0 ? (snapshot.isPhase1() ? "w" : "z") : "x" + snapshot.getBasicVar(i);
+		double a = snapshot.getCoefficient(i, column - 1);
+		return Dictionary.isNull(a) ? "" : String.format("%.2f", a);
+	}
+}
@@ -4,5 +4,5 @@ package simplex;
  * Used to characterize the entering method
  */
 public enum EnteringMethod {
-		FIRST, GREATEST, MORE_ADVANTAGEOUS;
+		FIRST, GREATEST, MORE_ADVANTAGEOUS, STEEPEST_EDGE, DEVEX;
 }
@@ -9,7 +9,11 @@ import java.io.File;
  * Contains the main method
  */
 public class Main { 
-	public static void main(String[] arg) throws IOException {
+	public static void main(String[] arg) throws IOException, InterruptedException {
+		if (arg.length > 0) {
+			BatchSolver.main(arg); // resolution without window of the problems of a directory
+			return;
+		}
 		Simplex simplex = new Simplex();
 		Scenario scenario = new Scenario(simplex);
 		simplex.view = scenario;
@@ -0,0 +1,351 @@
+package simplex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Reductions of a problem before the construction of its dictionary:
+ * <br> - empty constraints (0 <= b with b >= 0) are removed;
+ * <br> - a constraint with a single variable becomes a bound of this variable;
+ * <br> - a constraint which holds for every value within the bounds (dominated) is removed;
+ * <br> - of two proportional constraints, only the tighter one is kept;
+ * <br> - a fixed variable (lower = upper) is replaced by its value;
+ * <br> - a variable which appears in no constraint is set to its best bound.
+ * <br> The reductions are applied until none is possible and are recorded in a stack,
+ * used by postsolve to compute the solution of the original problem from the one of the
+ * reduced problem. A reduction which would show that the problem is not feasible is not
+ * applied: the simplex method will find it.
+ */
+public class Presolve {
+	private Problem original;
+	private double[] b; // right hand sides after the substitution of the fixed variables
+	private double[] lower;
+	private double[] upper;
+	private double z0;
+	private boolean[] rowRemoved;
+	private boolean[] columnRemoved;
+	private ArrayList<Reduction> stack = new ArrayList<Reduction>();
+	private int[] rowMap; // rowMap[i] is the original index of the constraint i of the reduced problem
+	private int[] columnMap; // columnMap[j] is the original index of the variable of index j of the reduced problem
+	private double tolerance; // the primal tolerance of the resolution
+
+	// a reduction, undone by postsolve in the reverse order of the stack
+	private abstract static class Reduction {
+		// completes the values of the variables of the original problem, x_j being at index j
+		void postsolve(double[] x) {
+		}
+	}
+
+	// a constraint removed without changing the variables
+	private static class RemovedRow extends Reduction {
+		int row;
+		String reason;
+
+		RemovedRow(int row, String reason) {
+			this.row = row;
+			this.reason = reason;
+		}
+
+		public String toString() {
+			return "constraint " + (row + 1) + " removed: " + reason;
+		}
+	}
+
+	// a constraint a x_j <= b replaced by a bound of x_j
+	private static class RowToBound extends Reduction {
+		int row, column;
+		double bound;
+		boolean upper;
+
+		RowToBound(int row, int column, double bound, boolean upper) {
+			this.row = row;
+			this.column = column;
+			this.bound = bound;
+			this.upper = upper;
+		}
+
+		public String toString() {
+			return "constraint " + (row + 1) + " replaced by x" + (column + 1) + (upper ? " <= " : " >= ") + bound;
+		}
+	}
+
+	// a variable removed with its value
+	private static class FixedColumn extends Reduction {
+		int column;
+		double value;
+		String reason;
+
+		FixedColumn(int column, double value, String reason) {
+			this.column = column;
+			this.value = value;
+			this.reason = reason;
+		}
+
+		void postsolve(double[] x) {
+			x[column + 1] = value;
+		}
+
+		public String toString() {
+			return "x" + (column + 1) + " = " + value + " (" + reason + ")";
+		}
+	}
+
+	public Presolve(Problem problem) {
+		this(problem, new SolverContext());
+	}
+
+	/**
+	 * @param context the settings of the resolution, whose primal tolerance is the one of the reductions
+	 */
+	public Presolve(Problem problem, SolverContext context) {
+		this.original = problem;
+		this.tolerance = context.getPrimalTolerance();
+	}
+
+	/**
+	 * Applies the reductions until none is possible.
+	 * @return the reduced problem, whose variables and constraints keep the order of the original ones
+	 */
+	public Problem reduce() {
+		int m = original.nbConstraints, n = original.nbVariables;
+		b = original.b.clone();
+		lower = original.lower.clone();
+		upper = original.upper.clone();
+		z0 = original.z0;
+		rowRemoved = new boolean[m];
+		columnRemoved = new boolean[n];
+		stack.clear();
+
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i = 0; i < m; i++)
+				if (!rowRemoved[i] && reduceRow(i)) changed = true;
+			for (int j = 0; j < n; j++)
+				if (!columnRemoved[j] && reduceColumn(j)) changed = true;
+			if (removeDuplicateRows()) changed = true;
+		}
+		return buildReducedProblem();
+	}
+
+	// empty, singleton or dominated constraint; returns true if the constraint is removed
+	private boolean reduceRow(int i) {
+		double[] row = original.a[i];
+		int nnz = 0, column = -1;
+		double maxActivity = 0; // greatest value of the left hand side within the bounds
+		for (int j = 0; j < row.length; j++) {
+			if (columnRemoved[j] || row[j] == 0) continue;
+			nnz++;
+			column = j;
+			maxActivity += row[j] > 0 ? row[j] * upper[j] : row[j] * lower[j];
+		}
+		if (nnz == 0) {
+			if (b[i] < -tolerance) return false;
+			removeRow(i, "empty");
+			return true;
+		}
+		if (nnz == 1) {
+			double a = row[column];
+			double bound = b[i] / a;
+			if (a > 0) {
+				if (bound < lower[column] - tolerance) return false;
+				upper[column] = Math.max(Math.min(upper[column], bound), lower[column]);
+			}
+			else {
+				if (bound > upper[column] + tolerance) return false;
+				lower[column] = Math.min(Math.max(lower[column], bound), upper[column]);
+			}
+			rowRemoved[i] = true;
+			stack.add(new RowToBound(i, column, bound, a > 0));
+			return true;
+		}
+		if (maxActivity <= b[i] + tolerance) {
+			removeRow(i, "dominated by the bounds");
+			return true;
+		}
+		return false;
+	}
+
+	// fixed or empty variable; returns true if the variable is removed
+	private boolean reduceColumn(int j) {
+		if (upper[j] - lower[j] <= tolerance) {
+			fixColumn(j, lower[j], "fixed");
+			return true;
+		}
+		for (int i = 0; i < original.nbConstraints; i++)
+			if (!rowRemoved[i] && original.a[i][j] != 0) return false;
+		double cj = original.c[j];
+		if (cj > tolerance) {
+			if (upper[j] == Double.POSITIVE_INFINITY) return false; // not bounded, left to the simplex
+			fixColumn(j, upper[j], "in no constraint");
+		}
+		else fixColumn(j, lower[j], "in no constraint");
+		return true;
+	}
+
+	private void fixColumn(int j, double value, String reason) {
+		for (int i = 0; i < original.nbConstraints; i++)
+			if (!rowRemoved[i]) b[i] -= original.a[i][j] * value;
+		z0 += original.c[j] * value;
+		columnRemoved[j] = true;
+		stack.add(new FixedColumn(j, value, reason));
+	}
+
+	private void removeRow(int i, String reason) {
+		rowRemoved[i] = true;
+		stack.add(new RemovedRow(i, reason));
+	}
+
+	/*
+	 * The constraints are grouped by pattern of non null coefficients and signs; in a group,
+	 * the constraint k is a multiple t > 0 of the constraint i if a_k = t a_i, and only the one
+	 * of smallest b / t is kept.
+	 */
+	private boolean removeDuplicateRows() {
+		HashMap<Integer, ArrayList<Integer>> groups = new HashMap<Integer, ArrayList<Integer>>();
+		boolean changed = false;
+		for (int i = 0; i < original.nbConstraints; i++) {
+			if (rowRemoved[i]) continue;
+			double[] row = original.a[i];
+			int key = 1;
+			for (int j = 0; j < row.length; j++)
+				if (!columnRemoved[j] && row[j] != 0) key = 31 * key + (row[j] > 0 ? 2 * j : 2 * j + 1);
+			ArrayList<Integer> group = groups.get(key);
+			if (group == null) groups.put(key, group = new ArrayList<Integer>());
+			for (int k : group) {
+				if (rowRemoved[k]) continue;
+				double t = ratio(original.a[k], row);
+				if (t == 0) continue;
+				// row = t a_k: the constraint i is a_k x <= b_i / t
+				if (b[i] / t < b[k]) {
+					removeRow(k, "constraint " + (i + 1) + " is tighter");
+					group.set(group.indexOf(k), i);
+				}
+				else removeRow(i, "constraint " + (k + 1) + " is tighter");
+				changed = true;
+				break;
+			}
+			if (!rowRemoved[i] && !group.contains(i)) group.add(i);
+		}
+		return changed;
+	}
+
+	// returns t > 0 such that row = t ref on the remaining columns, 0 if there is none
+	private double ratio(double[] ref, double[] row) {
+		double t = 0;
+		for (int j = 0; j < row.length; j++) {
+			if (columnRemoved[j]) continue;
+			if ((ref[j] == 0) != (row[j] == 0)) return 0;
+			if (ref[j] == 0) continue;
+			if (t == 0) {
+				t = row[j] / ref[j];
+				if (t <= 0) return 0;
+			}
+			else if (Math.abs(row[j] - t * ref[j]) > tolerance * Math.abs(row[j])) return 0;
+		}
+		return t;
+	}
+
+	private Problem buildReducedProblem() {
+		int m = 0, n = 0;
+		for (boolean removed : rowRemoved) if (!removed) m++;
+		for (boolean removed : columnRemoved) if (!removed) n++;
+		rowMap = new int[m];
+		columnMap = new int[n];
+		m = 0;
+		n = 0;
+		for (int i = 0; i < rowRemoved.length; i++) if (!rowRemoved[i]) rowMap[m++] = i;
+		for (int j = 0; j < columnRemoved.length; j++) if (!columnRemoved[j]) columnMap[n++] = j;
+
+		Problem reduced = new Problem(n, m);
+		for (int i = 0; i < m; i++) {
+			for (int j = 0; j < n; j++) reduced.a[i][j] = original.a[rowMap[i]][columnMap[j]];
+			reduced.b[i] = b[rowMap[i]];
+		}
+		for (int j = 0; j < n; j++) {
+			reduced.c[j] = original.c[columnMap[j]];
+			reduced.lower[j] = lower[columnMap[j]];
+			reduced.upper[j] = upper[columnMap[j]];
+		}
+		reduced.z0 = z0;
+		reduced.bounded = original.bounded;
+		return reduced;
+	}
+
+	/**
+	 * Computes the solution of the original problem.
+	 * @param reduced the values of the variables of the reduced problem, the variable of number num being
+	 * at index num: decision variables, then slack variables
+	 * @return the values of the decision variables then of the slack variables of the original problem,
+	 * with the same numbering
+	 */
+	public double[] postsolve(double[] reduced) {
+		int m = original.nbConstraints, n = original.nbVariables;
+		double[] x = new double[n + m + 1];
+		for (int j = 0; j < columnMap.length; j++) x[columnMap[j] + 1] = reduced[j + 1];
+		for (int t = stack.size() - 1; t >= 0; t--) stack.get(t).postsolve(x);
+		for (int i = 0; i < m; i++) {
+			double s = original.b[i];
+			for (int j = 0; j < n; j++) s -= original.a[i][j] * x[j + 1];
+			x[n + i + 1] = s;
+		}
+		return x;
+	}
+
+	/**
+	 * @param reduced the dual values of the constraints of the reduced problem, y_i at index i
+	 * @return the dual values of the constraints of the original problem, 0 for the removed ones
+	 */
+	public double[] postsolveDuals(double[] reduced) {
+		double[] y = new double[original.nbConstraints + 1];
+		for (int i = 0; i < rowMap.length; i++) y[rowMap[i] + 1] = reduced[i + 1];
+		return y;
+	}
+
+	public double getTolerance() {
+		return tolerance;
+	}
+
+	public void setTolerance(double tolerance) {
+		this.tolerance = tolerance;
+	}
+
+	public Problem getOriginal() {
+		return original;
+	}
+
+	public int getNbRemovedRows() {
+		return original.nbConstraints - rowMap.length;
+	}
+
+	public int getNbRemovedColumns() {
+		return original.nbVariables - columnMap.length;
+	}
+
+	/**
+	 * @return the original number of the decision variable of number num in the reduced problem
+	 */
+	public int originalNumber(int num) {
+		return columnMap[num - 1] + 1;
+	}
+
+	/**
+	 * @return the original index, from 1, of the constraint i of the reduced problem
+	 */
+	public int originalConstraint(int i) {
+		return rowMap[i - 1] + 1;
+	}
+
+	@Override
+	public String toString() {
+		String out = "Presolve: " + getNbRemovedRows() + " constraint(s) and " + getNbRemovedColumns()
+				+ " variable(s) removed\n";
+		for (Reduction reduction : stack) out += "  " + reduction + "\n";
+		if (getNbRemovedColumns() > 0 && columnMap.length > 0) {
+			out += "Variables of the reduced problem:";
+			for (int j = 0; j < columnMap.length; j++) out += " x" + (j + 1) + "=x" + (columnMap[j] + 1);
+			out += "\n";
+		}
+		return out;
+	}
+}
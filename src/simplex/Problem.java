@@ -0,0 +1,113 @@
+package simplex;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Scanner;
+
+/**
+ * Linear program in the form read from the files:
+ * maximize z = z0 + c x with A x <= b and lower <= x <= upper.
+ * <br> The variable x_j of the files is at index j - 1 of the arrays.
+ */
+public class Problem {
+	int nbVariables; // n
+	int nbConstraints; // m
+	double[][] a; // a[i][j] is the coefficient of x_j+1 in the constraint i
+	double[] b;
+	double[] c;
+	double z0;
+	double[] lower; // 0 if no bound was given
+	double[] upper; // Double.POSITIVE_INFINITY if no bound was given
+	boolean bounded; // true if the file has a section of bounds
+
+	/**
+	 * Builds a problem without constraint and without bound; the arrays are allocated.
+	 */
+	public Problem(int nbVariables, int nbConstraints) {
+		this.nbVariables = nbVariables;
+		this.nbConstraints = nbConstraints;
+		a = new double[nbConstraints][nbVariables];
+		b = new double[nbConstraints];
+		c = new double[nbVariables];
+		lower = new double[nbVariables];
+		upper = new double[nbVariables];
+		Arrays.fill(upper, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Reads a problem in the format described in Dictionary.readFile.
+	 */
+	public Problem(File file) throws IOException {
+		Scanner reader = new Scanner(file);
+
+		reader.useLocale(Locale.FRANCE);
+		nbVariables = reader.nextInt();
+		nbConstraints = reader.nextInt();
+		a = new double[nbConstraints][nbVariables];
+		b = new double[nbConstraints];
+		c = new double[nbVariables];
+		lower = new double[nbVariables];
+		upper = new double[nbVariables];
+		Arrays.fill(upper, Double.POSITIVE_INFINITY);
+		for (int i = 0; i < nbConstraints; i++) {
+			for (int j = 0; j < nbVariables; j++) a[i][j] = reader.nextDouble();
+			b[i] = reader.nextDouble();
+		}
+		for (int j = 0; j < nbVariables; j++) c[j] = reader.nextDouble();
+		if (reader.hasNext("(?i)bounds")) {
+			reader.next();
+			bounded = true;
+			readBounds(reader);
+		}
+		reader.close();
+	}
+
+	/*
+	 * Reads the section of bounds which follows the objective function:
+	 * bounds
+	 * j l u
+	 * ...
+	 * gives l <= xj <= u for the decision variable xj; u can be inf.
+	 */
+	private void readBounds(Scanner reader) throws IOException {
+		while (reader.hasNextInt()) {
+			int j = reader.nextInt();
+			double l = reader.nextDouble();
+			double u;
+			if (reader.hasNextDouble()) u = reader.nextDouble();
+			else if (reader.hasNext() && reader.next().equalsIgnoreCase("inf")) u = Double.POSITIVE_INFINITY;
+			else throw new IOException("Wrong upper bound for the variable x" + j);
+			if (j < 1 || j > nbVariables) throw new IOException("Wrong variable in the bounds: x" + j);
+			if (l > u) throw new IOException("The bounds of x" + j + " are not compatible");
+			lower[j - 1] = l;
+			upper[j - 1] = u;
+		}
+	}
+
+	public int getNbVariables() {
+		return nbVariables;
+	}
+
+	public int getNbConstraints() {
+		return nbConstraints;
+	}
+
+	// returns true if a variable has a lower bound other than 0 or a finite upper bound
+	public boolean hasBounds() {
+		if (bounded) return true;
+		for (int j = 0; j < nbVariables; j++)
+			if (lower[j] != 0 || upper[j] != Double.POSITIVE_INFINITY) return true;
+		return false;
+	}
+
+	/**
+	 * @return the value of the objective function for x, x_j being at index j (index 0 unused)
+	 */
+	public double getObjective(double[] x) {
+		double z = z0;
+		for (int j = 0; j < nbVariables; j++) z += c[j] * x[j + 1];
+		return z;
+	}
+}
@@ -0,0 +1,276 @@
+package simplex;
+
+import java.util.ArrayList;
+
+import matrix.BasisFactorization;
+import matrix.LUFactorization;
+import matrix.Matrix;
+
+/**
+ * Revised simplex method, an alternative to the pivoting of the whole dictionary.
+ * The original constraint matrix A (with the slack columns, as computed by
+ * Simplex.computeABeginning) is kept unchanged and the inverse of the basis is
+ * represented by a BasisFactorization: an LU factorization with Forrest-Tomlin
+ * updates by default, or an eta file (product form of the inverse).
+ * Each iteration only computes the row of the reduced costs (pricing) by BTRAN
+ * and the column of the entering variable by FTRAN.
+ * <br> The variables are numbered as in Dictionary: decision variables from 1 to n,
+ * slack variables from n + 1 to n + m.
+ * <br> The starting basis must be feasible; the engine performs the second phase.
+ */
+public class RevisedSimplex {
+	private int nbRows; // m, number of constraints
+	private int nbColumns; // number of columns of A, i.e. the number of variables
+	private double[] columns; // A stored column after column: a_ij is in columns[j * nbRows + i]
+	private double[] b;
+	private double[] c; // c[j] is the cost of the variable of number j + 1
+	private double z0;
+
+	private int[] arrayBasicVar; // from index 1, the number of the basic variable of each row
+	private int[] arrayNonBasicVar; // from index 1, the numbers of the non-basic variables
+	private double[] xB; // xB[i] is the value of the basic variable of the row i + 1
+	private BasisFactorization factorization = new LUFactorization();
+	private SolverContext context; // the tolerances
+
+	private int reinversionFrequency = 50; // number of updates after which the basis is factorized again
+	private int nbIterations;
+	private int nbReinversions;
+	boolean optimal;
+	boolean borned = true;
+
+	/**
+	 * Prepares the revised simplex method starting from the basis of the slack variables.
+	 * @param A the matrix of the constraints, of size m x (n + m), whose last m columns are the identity
+	 * @param b the right hand sides
+	 * @param c the costs of the n + m variables
+	 * @param z0 the constant of the objective function
+	 */
+	public RevisedSimplex(Matrix A, double[] b, double[] c, double z0) {
+		this(A, b, c, z0, new SolverContext());
+	}
+
+	/**
+	 * @param context the settings of the resolution, which give the tolerances
+	 */
+	public RevisedSimplex(Matrix A, double[] b, double[] c, double z0, SolverContext context) {
+		this.context = context;
+		this.nbRows = A.getNbRows();
+		this.nbColumns = A.getNbColumns();
+		this.b = b.clone();
+		this.c = c.clone();
+		this.z0 = z0;
+		this.columns = new double[nbRows * nbColumns];
+		for (int j = 0; j < nbColumns; j++)
+			for (int i = 0; i < nbRows; i++) columns[j * nbRows + i] = A.getValue(i, j);
+
+		ArrayList<Integer> base = new ArrayList<Integer>();
+		for (int i = 1; i <= nbRows; i++) base.add(nbColumns - nbRows + i);
+		setBasis(base);
+	}
+
+	/**
+	 * Changes the current basis, the inverse of the basis is recomputed.
+	 * @param base the numbers of the basic variables
+	 */
+	public void setBasis(ArrayList<Integer> base) {
+		arrayBasicVar = new int[nbRows + 1];
+		arrayNonBasicVar = new int[nbColumns - nbRows + 1];
+		for (int i = 1; i <= nbRows; i++) arrayBasicVar[i] = base.get(i - 1);
+		int j = 1;
+		for (int num = 1; num <= nbColumns; num++)
+			if (!base.contains(num)) arrayNonBasicVar[j++] = num;
+		reinvert();
+		optimal = false;
+		borned = true;
+	}
+
+	/**
+	 * Recomputes the factorization from scratch for the current basis.
+	 */
+	public void reinvert() {
+		Matrix B = new Matrix(nbRows, nbRows);
+		for (int j = 1; j <= nbRows; j++) {
+			int offset = (arrayBasicVar[j] - 1) * nbRows;
+			for (int i = 0; i < nbRows; i++) B.setValue(i, j - 1, columns[offset + i]);
+		}
+		factorization.factorize(B);
+		xB = b.clone();
+		factorization.ftran(xB);
+		nbReinversions++;
+	}
+
+	// copies into d the column of A of the variable num
+	private void loadColumn(int num, double[] d) {
+		System.arraycopy(columns, (num - 1) * nbRows, d, 0, nbRows);
+	}
+
+	// returns the reduced cost c_j - y a_j of the variable num
+	private double reducedCost(int num, double[] y) {
+		int offset = (num - 1) * nbRows;
+		double s = c[num - 1];
+		for (int i = 0; i < nbRows; i++) s -= y[i] * columns[offset + i];
+		return s;
+	}
+
+	/**
+	 * Computes the dual values y = c_B B^-1 by BTRAN.
+	 */
+	public double[] computeDuals() {
+		double[] y = new double[nbRows];
+		for (int i = 1; i <= nbRows; i++) y[i - 1] = c[arrayBasicVar[i] - 1];
+		factorization.btran(y);
+		return y;
+	}
+
+	/**
+	 * Pricing: looks for the first non-basic variable, in the order of arrayNonBasicVar,
+	 * whose reduced cost is strictly positive, like Dictionary.searchFirstIndexEnteringVariable.
+	 * @return the index in arrayNonBasicVar of the entering variable, 0 if there is none
+	 */
+	public int searchIndexEnteringVariable(double[] y) {
+		for (int j = 1; j < arrayNonBasicVar.length; j++)
+			if (reducedCost(arrayNonBasicVar[j], y) > context.dualTolerance) return j;
+		return 0;
+	}
+
+	/**
+	 * Ratio test on the column d = B^-1 a of the entering variable.
+	 * @return the row (from 1) of the leaving variable, 0 if the problem is not bounded
+	 */
+	public int searchIndexLeavingVariable(double[] d) {
+		int iS = 0;
+		double min = 0;
+		for (int i = 1; i <= nbRows; i++) {
+			if (d[i - 1] <= context.pivotTolerance) continue;
+			double ratio = xB[i - 1] / d[i - 1];
+			if (iS == 0 || ratio < min) {
+				min = ratio;
+				iS = i;
+			}
+		}
+		return iS;
+	}
+
+	/**
+	 * Performs an iteration of the revised simplex method: BTRAN for the duals,
+	 * pricing, FTRAN of the entering column, ratio test and update of the factorization.
+	 */
+	public void oneStep() {
+		double[] y = computeDuals();
+		int jE = searchIndexEnteringVariable(y);
+		if (jE == 0) {
+			optimal = true;
+			return;
+		}
+		int numE = arrayNonBasicVar[jE];
+		double[] d = new double[nbRows];
+		loadColumn(numE, d);
+		factorization.ftran(d);
+		int iS = searchIndexLeavingVariable(d);
+		if (iS == 0) {
+			borned = false;
+			return;
+		}
+		double t = xB[iS - 1] / d[iS - 1];
+		for (int i = 0; i < nbRows; i++) xB[i] -= t * d[i];
+		xB[iS - 1] = t;
+		factorization.update(iS - 1, d);
+		arrayNonBasicVar[jE] = arrayBasicVar[iS];
+		arrayBasicVar[iS] = numE;
+		nbIterations++;
+		if (factorization.getNbUpdates() >= reinversionFrequency || factorization.needsRefactorization())
+			reinvert();
+	}
+
+	/**
+	 * Iterates until the basis is optimal or the problem is shown to be not bounded.
+	 */
+	public void solve() {
+		while (!optimal && borned) oneStep();
+	}
+
+	public boolean isFeasible() {
+		for (int i = 0; i < nbRows; i++) if (xB[i] < -context.primalTolerance) return false;
+		return true;
+	}
+
+	public boolean isOptimal() {
+		return optimal;
+	}
+
+	public boolean isBorned() {
+		return borned;
+	}
+
+	// returns the value of the objective function for the current basis
+	public double getObjective() {
+		double z = z0;
+		for (int i = 1; i <= nbRows; i++) z += c[arrayBasicVar[i] - 1] * xB[i - 1];
+		return z;
+	}
+
+	/**
+	 * @return the values of the variables, the variable of number j being at index j (index 0 unused)
+	 */
+	public double[] getSolution() {
+		double[] solution = new double[nbColumns + 1];
+		for (int i = 1; i <= nbRows; i++) solution[arrayBasicVar[i]] = xB[i - 1];
+		return solution;
+	}
+
+	/**
+	 * @return the dictionary corresponding to the current basis, to display it for instance
+	 */
+	public Dictionary toDictionary() {
+		ArrayList<Integer> base = new ArrayList<Integer>();
+		ArrayList<Integer> cols = new ArrayList<Integer>();
+		Matrix A = new Matrix(nbRows, nbColumns);
+		for (int j = 0; j < nbColumns; j++)
+			for (int i = 0; i < nbRows; i++) A.setValue(i, j, columns[j * nbRows + i]);
+		for (int i = 1; i <= nbRows; i++) {
+			base.add(arrayBasicVar[i]);
+			cols.add(arrayBasicVar[i] - 1);
+		}
+		return new Dictionary(A, A.extract(cols), base, b, c, z0);
+	}
+
+	public int[] getBasicVar() {
+		return arrayBasicVar;
+	}
+
+	public int[] getNonBasicVar() {
+		return arrayNonBasicVar;
+	}
+
+	public int getNbIterations() {
+		return nbIterations;
+	}
+
+	public int getNbReinversions() {
+		return nbReinversions;
+	}
+
+	public BasisFactorization getFactorization() {
+		return factorization;
+	}
+
+	/**
+	 * Chooses the representation of the inverse of the basis, which is computed again.
+	 * @param factorization for instance new LUFactorization() or new EtaFile(m)
+	 */
+	public void setFactorization(BasisFactorization factorization) {
+		this.factorization = factorization;
+		reinvert();
+	}
+
+	public int getReinversionFrequency() {
+		return reinversionFrequency;
+	}
+
+	/**
+	 * @param reinversionFrequency the number of pivots after which the basis is factorized again
+	 */
+	public void setReinversionFrequency(int reinversionFrequency) {
+		this.reinversionFrequency = reinversionFrequency;
+	}
+}
@@ -0,0 +1,163 @@
+package simplex;
+
+/**
+ * Scaling of a problem before the construction of its dictionary: the constraint i is multiplied
+ * by rowScale[i] and the variable x_j is replaced by x_j / columnScale[j], so that the coefficients
+ * R A S are close to 1 in absolute value.
+ * <br> Some passes of geometric mean scaling (each row then each column is divided by the square root
+ * of the product of its smallest and greatest coefficients) are followed by an equilibration (the
+ * greatest coefficient of each row, then of each column, becomes 1). The factors are rounded to
+ * powers of 2, so that the scaling adds no rounding error.
+ * <br> The objective function keeps its value; the solution and the dual values are unscaled by
+ * unscaleSolution and unscaleDuals.
+ */
+public class Scaling {
+	private Problem original;
+	private double[] rowScale;
+	private double[] columnScale;
+	private int maxPasses = 4; // maximal number of passes of geometric mean scaling
+	private double ratioBefore; // greatest over smallest absolute value of the non null coefficients
+	private double ratioAfter;
+
+	public Scaling(Problem problem) {
+		this.original = problem;
+	}
+
+	/**
+	 * Computes the scale factors.
+	 * @return the scaled problem
+	 */
+	public Problem scale() {
+		int m = original.nbConstraints, n = original.nbVariables;
+		double[][] a = original.a;
+		rowScale = new double[m];
+		columnScale = new double[n];
+		java.util.Arrays.fill(rowScale, 1);
+		java.util.Arrays.fill(columnScale, 1);
+		ratioBefore = ratio();
+
+		// geometric mean, while the ratio decreases by at least 10%
+		double previous = ratioBefore;
+		for (int pass = 0; pass < maxPasses; pass++) {
+			for (int i = 0; i < m; i++) {
+				double min = Double.POSITIVE_INFINITY, max = 0;
+				for (int j = 0; j < n; j++) {
+					double v = Math.abs(a[i][j]) * columnScale[j];
+					if (v == 0) continue;
+					min = Math.min(min, v);
+					max = Math.max(max, v);
+				}
+				if (max > 0) rowScale[i] = 1 / Math.sqrt(min * max);
+			}
+			for (int j = 0; j < n; j++) {
+				double min = Double.POSITIVE_INFINITY, max = 0;
+				for (int i = 0; i < m; i++) {
+					double v = Math.abs(a[i][j]) * rowScale[i];
+					if (v == 0) continue;
+					min = Math.min(min, v);
+					max = Math.max(max, v);
+				}
+				if (max > 0) columnScale[j] = 1 / Math.sqrt(min * max);
+			}
+			double current = ratio();
+			if (current > 0.9 * previous) break;
+			previous = current;
+		}
+
+		// equilibration
+		for (int i = 0; i < m; i++) {
+			double max = 0;
+			for (int j = 0; j < n; j++) max = Math.max(max, Math.abs(a[i][j]) * columnScale[j]);
+			if (max > 0) rowScale[i] = powerOf2(1 / max);
+		}
+		for (int j = 0; j < n; j++) {
+			double max = 0;
+			for (int i = 0; i < m; i++) max = Math.max(max, Math.abs(a[i][j]) * rowScale[i]);
+			if (max > 0) columnScale[j] = powerOf2(1 / max);
+		}
+		ratioAfter = ratio();
+
+		Problem scaled = new Problem(n, m);
+		for (int i = 0; i < m; i++) {
+			for (int j = 0; j < n; j++) scaled.a[i][j] = a[i][j] * rowScale[i] * columnScale[j];
+			scaled.b[i] = original.b[i] * rowScale[i];
+		}
+		for (int j = 0; j < n; j++) {
+			scaled.c[j] = original.c[j] * columnScale[j];
+			scaled.lower[j] = original.lower[j] / columnScale[j];
+			scaled.upper[j] = original.upper[j] / columnScale[j];
+		}
+		scaled.z0 = original.z0;
+		scaled.bounded = original.bounded;
+		return scaled;
+	}
+
+	// the power of 2 nearest to v > 0
+	private static double powerOf2(double v) {
+		return Math.scalb(1.0, (int) Math.round(Math.log(v) / Math.log(2)));
+	}
+
+	// greatest over smallest absolute value of the non null coefficients of R A S
+	private double ratio() {
+		double min = Double.POSITIVE_INFINITY, max = 0;
+		for (int i = 0; i < original.nbConstraints; i++)
+			for (int j = 0; j < original.nbVariables; j++) {
+				double v = Math.abs(original.a[i][j]) * rowScale[i] * columnScale[j];
+				if (v == 0) continue;
+				min = Math.min(min, v);
+				max = Math.max(max, v);
+			}
+		return max == 0 ? 1 : max / min;
+	}
+
+	/**
+	 * @param scaled the values of the variables of the scaled problem, the variable of number num being
+	 * at index num: decision variables, then slack variables
+	 * @return the values of the variables of the original problem, with the same numbering
+	 */
+	public double[] unscaleSolution(double[] scaled) {
+		int n = original.nbVariables;
+		double[] x = scaled.clone();
+		for (int j = 1; j <= n && j < x.length; j++) x[j] *= columnScale[j - 1];
+		for (int i = 1; i <= original.nbConstraints && n + i < x.length; i++) x[n + i] /= rowScale[i - 1];
+		return x;
+	}
+
+	/**
+	 * @param scaled the dual values of the constraints of the scaled problem, y_i at index i
+	 * @return the dual values of the constraints of the original problem
+	 */
+	public double[] unscaleDuals(double[] scaled) {
+		double[] y = scaled.clone();
+		for (int i = 1; i < y.length; i++) y[i] *= rowScale[i - 1];
+		return y;
+	}
+
+	public Problem getOriginal() {
+		return original;
+	}
+
+	public double[] getRowScale() {
+		return rowScale;
+	}
+
+	public double[] getColumnScale() {
+		return columnScale;
+	}
+
+	public int getMaxPasses() {
+		return maxPasses;
+	}
+
+	/**
+	 * @param maxPasses the maximal number of passes of geometric mean scaling, 0 for the equilibration only
+	 */
+	public void setMaxPasses(int maxPasses) {
+		this.maxPasses = maxPasses;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Scaling: ratio of the coefficients %.3g before, %.3g after\n", ratioBefore, ratioAfter);
+	}
+}
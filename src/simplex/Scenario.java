@@ -14,6 +14,7 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JRadioButton;
 import javax.swing.JScrollPane;
+import javax.swing.JTabbedPane;
 import javax.swing.JTextField;
 
 /**
@@ -23,23 +24,34 @@ public class Scenario extends JFrame {
 	private static final long serialVersionUID = 1L;
 	JButton total = new JButton("Perform until the end");
 	JButton oneStep = new JButton("Perform a step");
+	JButton stop = new JButton("Stop");
 	JButton buttonPivote = new JButton("Pivote");
 	JButton buttonRestart = new JButton("Choose a dictionary");
 	JButton buttonBasis = new JButton("Apply");
+	JButton saveBasis = new JButton("Save the basis");
+	JButton loadBasis = new JButton("Load a basis");
 	JCheckBox bland = new JCheckBox("Apply the Bland's rule", false);
+	JCheckBox dual = new JCheckBox("Dual simplex if dual feasible", false);
+	JCheckBox presolve = new JCheckBox("Presolve the next chosen problem", false);
+	JCheckBox scale = new JCheckBox("Scale the next chosen problem", false);
+	JCheckBox crash = new JCheckBox("Crash basis if not feasible", false);
 	JRadioButton first = new JRadioButton("The first candidate met", true);
 	JRadioButton greatest = new JRadioButton("The greatest coefficient", false);
 	JRadioButton advantageous = new JRadioButton("The most advantageous", false);
+	JRadioButton steepestEdge = new JRadioButton("The steepest edge", false);
+	JRadioButton devex = new JRadioButton("Devex (approximate steepest edge)", false);
 	JTextField vE = new JTextField(3);
 	JTextField vS = new JTextField(3);
 	JComboBox sizeList;
 	JTextField choiceBasis = new JTextField(8);
 	JLabel labelChoice;
+	Viewing output = new Viewing(); // the messages and the dictionaries of the resolution
 	Scenario_Controller controller;
 	Simplex simplex;
 	
 	public Scenario(Simplex simplex) {
 		this.simplex = simplex;
+		simplex.getContext().setListener(output);
 		controller = new Scenario_Controller(this, simplex);
 		addWindowListener(controller);
 		JPanel highPanel = new JPanel();
@@ -48,9 +60,9 @@ public class Scenario extends JFrame {
 		JPanel panel;
 		ButtonGroup group = new ButtonGroup();
 
-		JScrollPane scroll = new JScrollPane(Simplex.output);
+		JScrollPane scroll = new JScrollPane(output);
 
-		Simplex.output.scroll = scroll;
+		output.scroll = scroll;
 
 		highPanel.setLayout(new BoxLayout(highPanel, BoxLayout.X_AXIS));
 
@@ -61,11 +73,15 @@ public class Scenario extends JFrame {
 		group.add(first);
 		group.add(greatest);
 		group.add(advantageous);
+		group.add(steepestEdge);
+		group.add(devex);
 
 		Box choiceMethod = Box.createVerticalBox();
 		choiceMethod.add(first);
 		choiceMethod.add(greatest);
 		choiceMethod.add(advantageous);
+		choiceMethod.add(steepestEdge);
+		choiceMethod.add(devex);
 		leftPanel.add(choiceMethod);
 
 		first.addItemListener(controller);
@@ -74,17 +90,28 @@ public class Scenario extends JFrame {
 
 		advantageous.addItemListener(controller);
 
+		steepestEdge.addItemListener(controller);
+
+		devex.addItemListener(controller);
+
 		leftPanel.add(Box.createVerticalStrut(10));
 
 		bland.addItemListener(controller);
 		leftPanel.add(bland);
+		leftPanel.add(dual);
+		leftPanel.add(presolve);
+		leftPanel.add(scale);
+		leftPanel.add(crash);
 
 		leftPanel.add(Box.createVerticalStrut(10));
 
 		panel = new JPanel();
 		panel.add(total);
+		panel.add(stop);
 		leftPanel.add(panel);
 		total.addActionListener(controller);
+		stop.addActionListener(controller);
+		stop.setEnabled(false);
 
 		leftPanel.add(Box.createVerticalStrut(20));
 
@@ -140,6 +167,12 @@ public class Scenario extends JFrame {
 		panel.add(choiceBasis);
 		box.add(panel);
 		box.add(buttonBasis);
+		saveBasis.addActionListener(controller);
+		loadBasis.addActionListener(controller);
+		panel = new JPanel();
+		panel.add(saveBasis);
+		panel.add(loadBasis);
+		box.add(panel);
 
 		box. setBorder(BorderFactory.createEtchedBorder());
 		panel = new JPanel();
@@ -150,7 +183,11 @@ public class Scenario extends JFrame {
 		highPanel.add(rightPanel);
 
 		add(highPanel, BorderLayout.NORTH);
-		add(scroll, BorderLayout.CENTER);
+		JTabbedPane tabs = new JTabbedPane();
+		tabs.addTab("Text", scroll);
+		tabs.addTab("Tableau", new JScrollPane(output.tableau));
+		add(tabs, BorderLayout.CENTER);
+		add(output.counters, BorderLayout.SOUTH);
 		
 
 		buttonPivote.setEnabled(false);
@@ -169,10 +206,15 @@ public class Scenario extends JFrame {
 		oneStep.setEnabled(true);
 		buttonPivote.setEnabled(true);
 		buttonBasis.setEnabled(true);	
+		saveBasis.setEnabled(true);
+		loadBasis.setEnabled(true);
 		first.setEnabled(true);
 		greatest.setEnabled(true);
 		advantageous.setEnabled(true);
+		steepestEdge.setEnabled(true);
+		devex.setEnabled(true);
 		bland.setEnabled(true);
+		dual.setEnabled(true);
 	}
 	
 	public void buttonsGrayed() {
@@ -180,14 +222,20 @@ public class Scenario extends JFrame {
 		oneStep.setEnabled(false);
 		buttonPivote.setEnabled(false);
 		buttonBasis.setEnabled(false);	
+		saveBasis.setEnabled(false);
+		loadBasis.setEnabled(false);
 		first.setEnabled(false);
 		greatest.setEnabled(false);
 		advantageous.setEnabled(false);
+		steepestEdge.setEnabled(false);
+		devex.setEnabled(false);
 		bland.setEnabled(false);
+		dual.setEnabled(false);
 	}
 	
 	public void setSimplex(Simplex simplex) {
 		this.simplex = simplex;
+		simplex.getContext().setListener(output);
 		controller = new Scenario_Controller(this, simplex);
 		controller.nbDecision = simplex.getDictionary().getNbNonBasic();
 		
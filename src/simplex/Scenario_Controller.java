@@ -7,8 +7,13 @@ import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JFileChooser;
+import javax.swing.SwingWorker;
 
 import matrix.Matrix;
 
@@ -18,6 +23,7 @@ public class Scenario_Controller extends WindowAdapter
 	private Simplex simplex;
 	int nbDecision;
 	private boolean itIsSaid;
+	private CancellationToken cancellation; // of the last "Perform until the end"
 
 
 	public Scenario_Controller(Scenario scenario) {
@@ -34,7 +40,7 @@ public class Scenario_Controller extends WindowAdapter
 		
 		if (source == scenario.buttonRestart) {
 			try {
-				Simplex.output.setText("");
+				scenario.output.clear();
 				simplex.choiceDictionary();
 				scenario.allowButtons();
 				nbDecision = simplex.getDictionary().getNbNonBasic();
@@ -45,6 +51,7 @@ public class Scenario_Controller extends WindowAdapter
 		}
 		
 		else if (source == scenario.oneStep) {
+			readEntering();
 			simplex.oneStep();
 		} 
 
@@ -52,32 +59,32 @@ public class Scenario_Controller extends WindowAdapter
 			int jE, iS, numE, numS;
 
 			if (simplex.getDictionary().isIncomplete()){
-				Simplex.output.println("Please complete your program");
+				scenario.output.println("Please complete your program");
 				return; 
 			}
 			if (simplex.getPhase() == 3) {
-				Simplex.output.println("Ir is finished...");
+				scenario.output.println("Ir is finished...");
 				return;
 			}
 			
 			try {
 				if (scenario.vE.getText().equals("")) {
-					Simplex.output.println("No entering variable indicated");
+					scenario.output.println("No entering variable indicated");
 					return;
 				}
 				if (scenario.vS.getText().equals("")) {
-					Simplex.output.println("No leaving variable indicated");
+					scenario.output.println("No leaving variable indicated");
 					return;
 				}
 				numE = Integer.parseInt(scenario.vE.getText());
 				numS = Integer.parseInt(scenario.vS.getText());
 				jE = simplex.getDictionary().nonBasicIndex(numE);
 				iS = simplex.getDictionary().basicIndex(numS);			
-				if (jE == 0)Simplex.output.println("Invalid number for entering variable number");
-				if (iS == 0)Simplex.output.println("Invalid number for leaving variable number");
+				if (jE == 0)scenario.output.println("Invalid number for entering variable number");
+				if (iS == 0)scenario.output.println("Invalid number for leaving variable number");
 				if ((jE != 0) && (iS != 0)) {
-					if (Dictionary.isNull(simplex.getDictionary().getD()[iS][jE])) {
-						Simplex.output.println("Impossible: division by zero");
+					if (Dictionary.isNull(simplex.getDictionary().getCoefficient(iS, jE))) {
+						scenario.output.println("Impossible: division by zero");
 						return;
 					}
 					simplex.getDictionary().oneStep(jE, iS);
@@ -87,17 +94,17 @@ public class Scenario_Controller extends WindowAdapter
 				}
 			}
 			catch(NumberFormatException exc) {
-				Simplex.output.println("Error on the numbers");
+				scenario.output.println("Error on the numbers");
 			}
 		}
 
 		else if ((source == scenario.buttonBasis) || (source == scenario.choiceBasis)){
 			if (simplex.getDictionary().isIncomplete()){
-				Simplex.output.println("Please complete your program");
+				scenario.output.println("Please complete your program");
 				return; 
 			}
 			if (simplex.getPhase() == 3) {
-				Simplex.output.println("It is finished...");
+				scenario.output.println("It is finished...");
 				return;
 			}
 			java.util.Scanner scan = new java.util.Scanner(scenario.choiceBasis.getText());
@@ -110,78 +117,154 @@ public class Scenario_Controller extends WindowAdapter
 				while (scan.hasNext()) {
 					num = Integer.parseInt(scan.next());
 					if (!simplex.getDictionary().contains(num)) {
-						Simplex.output.println("Wrong variable");
+						scenario.output.println("Wrong variable");
 						scan.close();
 						return;
 					}
 					if (!listBasis.contains(num))listBasis.add(num);
 				}
 				if (listBasis.size() != simplex.getDictionary().getNbBasic()) {
-					Simplex.output.println("There are not the right number of variables");
+					scenario.output.println("There are not the right number of variables");
 					scan.close();
 					return;
 				}
 				scan.close();
 			}
 			catch(NumberFormatException exc) {
-				Simplex.output.println("writing error");
+				scenario.output.println("writing error");
 			}
 			for (int i : listBasis) columns.add(i - 1);
 			B = simplex.getABeginning().extract(columns);
 			if (!B.isInvertible()) {
-				Simplex.output.println("It is not a basis");
+				scenario.output.println("It is not a basis");
 				return;
 			}
-			Simplex.output.println("\nNew dictionary");
-			simplex.setDico(new Dictionary(simplex.getABeginning(), B, listBasis, simplex.getBBeginning(),
-					simplex.getZBeginning(), simplex.getZ0Beginning()));
+			scenario.output.println("\nNew dictionary");
+			Dictionary dict = new Dictionary(simplex.getABeginning(), B, listBasis, simplex.getBBeginning(),
+					simplex.getZBeginning(), simplex.getZ0Beginning());
+			dict.copyBounds(simplex.getDictionary(), false);
+			dict.copySettings(simplex.getDictionary());
+			scenario.output.displayDictionary(dict);
+			simplex.setDico(dict);
 			treatPivotOrBasis();
 		}
 		
+		else if (source == scenario.saveBasis) {
+			Basis basis = simplex.getBasis();
+			if (basis == null) {
+				scenario.output.println("There is no basis of the problem during the first phase");
+				return;
+			}
+			JFileChooser dialogue = new JFileChooser(new File(Simplex.pathData));
+			if (dialogue.showSaveDialog(null) != JFileChooser.APPROVE_OPTION) return;
+			try {
+				basis.save(dialogue.getSelectedFile());
+				scenario.output.println("The " + basis + " is saved");
+			}
+			catch(IOException exc) {
+				scenario.output.println("The basis could not be saved: " + exc.getMessage());
+			}
+			return;
+		}
+
+		else if (source == scenario.loadBasis) {
+			JFileChooser dialogue = new JFileChooser(new File(Simplex.pathData));
+			if (dialogue.showOpenDialog(null) != JFileChooser.APPROVE_OPTION) return;
+			try {
+				simplex.warmStart(Basis.read(dialogue.getSelectedFile()));
+			}
+			catch(IOException exc) {
+				scenario.output.println("The basis could not be read: " + exc.getMessage());
+			}
+		}
+
 		else if (source == scenario.total) {	
 			if (simplex.getDictionary().isIncomplete()){
-				Simplex.output.println("Please complete your program");
+				scenario.output.println("Please complete your program");
 				return; 
 			}
 			if (simplex.getPhase() == 3) {
-				Simplex.output.println("It is finished...");
+				scenario.output.println("It is finished...");
 				return;	
 			}
-			new Thread(simplex).start();
+			readEntering();
+			scenario.desactivate();
+			cancellation = new CancellationToken();
+			simplex.getContext().setCancellation(cancellation);
+			scenario.stop.setEnabled(true);
+			new SwingWorker<Void, Void>() {
+				protected Void doInBackground() {
+					simplex.run(); // the window is updated by the timer of scenario.output
+					return null;
+				}
+
+				protected void done() {
+					scenario.stop.setEnabled(false);
+					if (simplex.getPhase() != 3) { // at the end, the buttons stay disabled
+						scenario.activate();
+						if (simplex.getPhase() == 0 || simplex.getPhase() == 1) scenario.buttonBasis.setEnabled(false);
+					}
+					try {
+						get();
+					}
+					catch (Exception exc) {
+						Throwable cause = exc instanceof ExecutionException ? exc.getCause() : exc;
+						scenario.output.println("The resolution has failed: " + cause);
+					}
+				}
+			}.execute();
 		}
 		
+		else if (source == scenario.stop) {
+			if (cancellation != null) cancellation.cancel(); // Simplex.run stops before its next step
+		}
+
 		else if (source == scenario.sizeList) {
 			if (simplex.getDictionary() == null) return;
-			Simplex.output.setFont(new Font("Courier New", Font.BOLD, (Integer)scenario.sizeList.getSelectedItem()));
+			scenario.output.setFont(new Font("Courier New", Font.BOLD, (Integer)scenario.sizeList.getSelectedItem()));
 		}
 		(new Thread(this)).start();
 	}
 
 
+	// the entering variable given for the next pivot, read by the Event Dispatch Thread before the step
+	private void readEntering() {
+		String text = scenario.vE.getText();
+		if (text.equals("")) return;
+		simplex.setChosenEntering(Integer.parseInt(text));
+		scenario.vE.setText("");
+	}
+
 	public void treatPivotOrBasis() {
 		switch (simplex.getPhase()) {
 		case -1 :	
 			if (simplex.getDictionary().isFeasible()) {
 				if (simplex.getDictionary().isIncomplete()) return;
 				if (!simplex.getDictionary().isOptimal()) {
-					Simplex.output.println("The dictionary is feasible");
-					Simplex.output.println("\nPHASE 2");
+					scenario.output.println("The dictionary is feasible");
+					scenario.output.println("\nPHASE 2");
 					simplex.setPhase(2);
 				}
 				else{
-					Simplex.output.println("The dictionary is  optimal");
-					Simplex.output.displaySolution(simplex.getDictionary());
+					scenario.output.println("The dictionary is  optimal");
+					scenario.output.displaySolution(simplex.getDictionary());
 					simplex.setPhase(3);
 				}
 			}
-			else Simplex.output.println("The dictionary is still not feasible");
+			else if (scenario.dual.isSelected() && simplex.getDictionary().isDualFeasible()) {
+				scenario.output.println("The dictionary is dual feasible");
+				scenario.output.println("\nPHASE 2 (dual simplex)");
+				simplex.getDictionary().setAlgorithm(SimplexAlgorithm.DUAL);
+				simplex.setPhase(2);
+			}
+			else scenario.output.println("The dictionary is still not feasible");
 			break;	
 		case 0 : 
 			if (!simplex.getDictionary().isFeasible()) {
 				scenario.oneStep.setEnabled(false);
 				scenario.total.setEnabled(false);
-				Simplex.output.println("Error: the dictionary is not feasible");
-				Simplex.output.println("You have to re-establish the situation by pivoting correctly");
+				scenario.output.println("Error: the dictionary is not feasible");
+				scenario.output.println("You have to re-establish the situation by pivoting correctly");
 				itIsSaid = true;
 				simplex.setPhase(1);
 			}
@@ -192,32 +275,37 @@ public class Scenario_Controller extends WindowAdapter
 				if (!itIsSaid) {
 					scenario.oneStep.setEnabled(false);
 					scenario.total.setEnabled(false);
-					Simplex.output.println("Error: the dictionary is not feasible");
-					Simplex.output.println("You have to re-establish the situation by pivoting correctly");
+					scenario.output.println("Error: the dictionary is not feasible");
+					scenario.output.println("You have to re-establish the situation by pivoting correctly");
 					itIsSaid = true;
 				}
 				else {	
-					Simplex.output.println("The dictionary is still not feasible");
+					scenario.output.println("The dictionary is still not feasible");
 				}
 			}
 			else this.traiterRealisable0_1(); 
 			break;
 		case 2 : 
-			if(!simplex.getDictionary().isFeasible()) {
-				Simplex.output.println("Error: the dictionary is not feasible");
-				Simplex.output.println("We arrive in phase 1");
+			if(!simplex.getDictionary().isFeasible() && scenario.dual.isSelected()
+					&& simplex.getDictionary().isDualFeasible()) {
+				scenario.output.println("The dictionary is not feasible: we go on with the dual simplex");
+				simplex.getDictionary().setAlgorithm(SimplexAlgorithm.DUAL);
+			}
+			else if(!simplex.getDictionary().isFeasible()) {
+				scenario.output.println("Error: the dictionary is not feasible");
+				scenario.output.println("We arrive in phase 1");
 				simplex.setPhase(-1);
 				simplex.memorizeZ();
 			}
 			else {
 				if (simplex.getDictionary().isOptimal()) {
-					Simplex.output.println("The dictionary is optimal");
-					Simplex.output.displaySolution(simplex.getDictionary());
+					scenario.output.println("The dictionary is optimal");
+					scenario.output.displaySolution(simplex.getDictionary());
 					simplex.setPhase(3);
 					scenario.desactivate();
 				}
 				else if (!simplex.getDictionary().borned) {
-					Simplex.output.println("The problem is unbounded");
+					scenario.output.println("The problem is unbounded");
 					simplex.setPhase(3);
 					scenario.desactivate();
 				}
@@ -233,14 +321,14 @@ public class Scenario_Controller extends WindowAdapter
 		scenario.total.setEnabled(true);
 		itIsSaid = false;
 		if (simplex.getDictionary().isOptimal()) {
-			Simplex.output.println("The dictionary of the first phase is optimal");
-			if (simplex.getDictionary().getD()[0][0] < -Dictionary.epsilon) {
-				Simplex.output.println("There is no feasible solution");
+			scenario.output.println("The dictionary of the first phase is optimal");
+			if (simplex.getDictionary().getCoefficient(0, 0) < -simplex.getContext().getPrimalTolerance()) {
+				scenario.output.println("There is no feasible solution");
 				simplex.setPhase(3);
 			}
 			else {
-				Simplex.output.println("End of the first phase");
-				Simplex.output.println("\nPHASE 2");
+				scenario.output.println("End of the first phase");
+				scenario.output.println("\nPHASE 2");
 				scenario.buttonBasis.setEnabled(true);
 				simplex.setPhase(2);
 				simplex.setDico(simplex.getDictionary().initialDictionaryPhase2
@@ -275,6 +363,14 @@ public class Scenario_Controller extends WindowAdapter
 			if (method != EnteringMethod.MORE_ADVANTAGEOUS)
 				simplex.getDictionary().setMethod(EnteringMethod.MORE_ADVANTAGEOUS);
 		}
+		else if (source == scenario.steepestEdge) {
+			if (method != EnteringMethod.STEEPEST_EDGE)
+				simplex.getDictionary().setMethod(EnteringMethod.STEEPEST_EDGE);
+		}
+		else if (source == scenario.devex) {
+			if (method != EnteringMethod.DEVEX)
+				simplex.getDictionary().setMethod(EnteringMethod.DEVEX);
+		}
 			
 		else if (source == scenario.bland) 
 			simplex.getDictionary().setBland(!simplex.getDictionary().isBland());
@@ -0,0 +1,205 @@
+package simplex;
+
+/**
+ * Sensitivity analysis of an optimal dictionary of the second phase:
+ * <br> - the reduced cost of each decision variable (variation of z per unit of the variable, 0 if it is basic);
+ * <br> - the shadow price of each constraint (variation of z per unit of its right hand side);
+ * <br> - the range of each cost and of each right hand side over which the basis stays optimal, the
+ * other data being unchanged.
+ * <br> Everything is read in the final dictionary: the objective row for the non-basic variables, the row
+ * of each basic decision variable for its cost, the column of each non-basic slack variable for its
+ * right hand side. No resolution is done again.
+ * <br> If the problem comes from a presolve or a scaling, the values are given for the original problem;
+ * the variables and constraints removed by the presolve have no value (NaN).
+ */
+public class Sensitivity {
+	private int nbVariables; // of the original problem
+	private int nbConstraints;
+	private double[] costs; // c_j at index j
+	private double[] reducedCosts;
+	private double[] costLower;
+	private double[] costUpper;
+	private double[] rhs; // b_i at index i
+	private double[] shadowPrices;
+	private double[] rhsLower;
+	private double[] rhsUpper;
+
+	public Sensitivity(Dictionary dict) {
+		if (dict.basicIndex(0) != 0 || dict.nonBasicIndex(0) != 0 || !dict.isOptimal() || !dict.isFeasible())
+			throw new IllegalStateException("The sensitivity analysis needs an optimal dictionary of the second phase");
+		int n = dict.getNbNonBasic(), m = dict.getNbBasic();
+		double tolerance = dict.getPivotTolerance();
+		int[] row = new int[n + m + 1], column = new int[n + m + 1];
+		for (int i = 1; i <= m; i++) row[dict.getBasicVar()[i]] = i;
+		for (int j = 1; j <= n; j++) column[dict.getNonBasicVar()[j]] = j;
+
+		// variations of the data of the problem of the dictionary
+		double[] d = new double[n + 1], cLow = new double[n + 1], cUp = new double[n + 1];
+		for (int num = 1; num <= n; num++) {
+			double low = Double.NEGATIVE_INFINITY, up = Double.POSITIVE_INFINITY;
+			if (row[num] != 0) {
+				// the objective row gains delta times the row of x_num: each coefficient must stay <= 0
+				for (int k = 1; k <= n; k++) {
+					double a = dict.getCoefficient(row[num], k);
+					if (Math.abs(a) <= tolerance) continue;
+					double bound = -Math.min(dict.getCoefficient(0, k), 0) / a;
+					if (a > 0) up = Math.min(up, bound);
+					else low = Math.max(low, bound);
+				}
+			}
+			else {
+				double dk = dict.getCoefficient(0, column[num]);
+				if (dict.isComplemented(num)) {
+					d[num] = -dk;
+					low = Math.min(dk, 0);
+				}
+				else {
+					d[num] = dk;
+					up = -Math.min(dk, 0);
+				}
+			}
+			cLow[num] = low;
+			cUp[num] = up;
+		}
+
+		double[] y = new double[m + 1], bLow = new double[m + 1], bUp = new double[m + 1];
+		for (int i = 1; i <= m; i++) {
+			int slack = n + i;
+			double low = Double.NEGATIVE_INFINITY, up = Double.POSITIVE_INFINITY;
+			if (row[slack] != 0) low = -Math.max(dict.getCoefficient(row[slack], 0), 0);
+			else {
+				// the basic variable of the row r becomes D[r][0] - delta D[r][k] and must stay within its bounds
+				int k = column[slack];
+				y[i] = -dict.getCoefficient(0, k);
+				for (int r = 1; r <= m; r++) {
+					double a = dict.getCoefficient(r, k);
+					if (Math.abs(a) <= tolerance) continue;
+					double v = Math.max(dict.getCoefficient(r, 0), 0);
+					double u = dict.getUpperBound(dict.getBasicVar()[r]);
+					if (a > 0) {
+						up = Math.min(up, v / a);
+						low = Math.max(low, (v - u) / a);
+					}
+					else {
+						low = Math.max(low, v / a);
+						up = Math.min(up, (v - u) / a);
+					}
+				}
+			}
+			bLow[i] = low;
+			bUp[i] = up;
+		}
+
+		// back to the original problem
+		Presolve presolve = dict.getPresolve();
+		Scaling scaling = dict.getScaling();
+		Problem original = presolve != null ? presolve.getOriginal() : scaling != null ? scaling.getOriginal() : null;
+		nbVariables = original != null ? original.nbVariables : n;
+		nbConstraints = original != null ? original.nbConstraints : m;
+		costs = nans(nbVariables);
+		reducedCosts = nans(nbVariables);
+		costLower = nans(nbVariables);
+		costUpper = nans(nbVariables);
+		rhs = nans(nbConstraints);
+		shadowPrices = nans(nbConstraints);
+		rhsLower = nans(nbConstraints);
+		rhsUpper = nans(nbConstraints);
+		for (int j = 1; j <= nbVariables; j++) costs[j] = original != null ? original.c[j - 1] : dict.costs[j];
+		for (int i = 1; i <= nbConstraints; i++) rhs[i] = original != null ? original.b[i - 1] : dict.rhs[i];
+		for (int num = 1; num <= n; num++) {
+			double s = scaling == null ? 1 : scaling.getColumnScale()[num - 1];
+			int j = presolve == null ? num : presolve.originalNumber(num);
+			reducedCosts[j] = d[num] / s;
+			costLower[j] = costs[j] + cLow[num] / s;
+			costUpper[j] = costs[j] + cUp[num] / s;
+		}
+		for (int k = 1; k <= m; k++) {
+			double s = scaling == null ? 1 : scaling.getRowScale()[k - 1];
+			int i = presolve == null ? k : presolve.originalConstraint(k);
+			shadowPrices[i] = y[k] * s;
+			rhsLower[i] = rhs[i] + bLow[k] / s;
+			rhsUpper[i] = rhs[i] + bUp[k] / s;
+		}
+	}
+
+	// an array of NaN, index 0 unused
+	private static double[] nans(int length) {
+		double[] v = new double[length + 1];
+		java.util.Arrays.fill(v, Double.NaN);
+		return v;
+	}
+
+	public int getNbVariables() {
+		return nbVariables;
+	}
+
+	public int getNbConstraints() {
+		return nbConstraints;
+	}
+
+	/**
+	 * @return the reduced costs, the one of x_j at index j
+	 */
+	public double[] getReducedCosts() {
+		return reducedCosts;
+	}
+
+	/**
+	 * @return the smallest costs keeping the basis optimal, the one of x_j at index j
+	 */
+	public double[] getCostLower() {
+		return costLower;
+	}
+
+	/**
+	 * @return the greatest costs keeping the basis optimal, the one of x_j at index j
+	 */
+	public double[] getCostUpper() {
+		return costUpper;
+	}
+
+	/**
+	 * @return the shadow prices, the one of the constraint i at index i
+	 */
+	public double[] getShadowPrices() {
+		return shadowPrices;
+	}
+
+	/**
+	 * @return the smallest right hand sides keeping the basis optimal, the one of the constraint i at index i
+	 */
+	public double[] getRhsLower() {
+		return rhsLower;
+	}
+
+	/**
+	 * @return the greatest right hand sides keeping the basis optimal, the one of the constraint i at index i
+	 */
+	public double[] getRhsUpper() {
+		return rhsUpper;
+	}
+
+	private static String format(double v) {
+		if (v == Double.POSITIVE_INFINITY) return "+inf";
+		if (v == Double.NEGATIVE_INFINITY) return "-inf";
+		return String.format("%.2f", v);
+	}
+
+	@Override
+	public String toString() {
+		String out = "Sensitivity analysis:\n";
+		out += "Variable: cost, reduced cost, range of the cost\n";
+		for (int j = 1; j <= nbVariables; j++) {
+			if (Double.isNaN(reducedCosts[j])) out += "x" + j + ": removed by the presolve\n";
+			else out += "x" + j + ": " + format(costs[j]) + ", " + format(reducedCosts[j]) + ", ["
+					+ format(costLower[j]) + ", " + format(costUpper[j]) + "]\n";
+		}
+		out += "Constraint: right hand side, shadow price, range of the right hand side\n";
+		for (int i = 1; i <= nbConstraints; i++) {
+			if (Double.isNaN(shadowPrices[i])) out += i + ": removed by the presolve\n";
+			else out += i + ": " + format(rhs[i]) + ", " + format(shadowPrices[i]) + ", ["
+					+ format(rhsLower[i]) + ", " + format(rhsUpper[i]) + "]\n";
+		}
+		return out;
+	}
+}
@@ -2,8 +2,10 @@ package simplex;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 
 import javax.swing.JFileChooser;
+import javax.swing.SwingUtilities;
 
 import matrix.Matrix;
 
@@ -17,37 +19,50 @@ public class Simplex implements Runnable {
 	private int phase = -1;
 	private double[] zInitial;
 	private double z0Initial;
-	public static Viewing output = new Viewing();
 	private Matrix ABeginning;
 	private double[] zBeginning;
 	private double z0Beginning;
 	private double[] bBeginning;
 	private int[] initialNonBasicVar;
-	static String pathData = "pbs";
-	private int counter = 0;
+	static final String pathData = "pbs";
+	private int pricingSegment = 0; // partial pricing, see Dictionary.setPricingSegment
+	private int candidateListSize = 0; // multiple pricing, see Dictionary.setCandidateListSize
+	private boolean parallelPivot = false; // see Dictionary.setParallel
+	private boolean harris = false; // see Dictionary.setHarris
+	private SolverContext context; // tolerances, listener and limits of the resolution
+	private SolveStatus status; // the end of the resolution, null while it goes on
+	private int chosenEntering = 0; // number of the entering variable of the next pivot given by the user, 0 if none
 	Scenario_Controller controller;
 	Scenario view;
 
 	public Simplex() throws IOException {
+		this(new SolverContext());
+	}
+
+	/**
+	 * @param context the settings of the resolutions of this simplex method, shared by its dictionaries
+	 */
+	public Simplex(SolverContext context) {
+		this.context = context;
 	}
 
 	public void memorizeBeginning() {
 		computeABeginning();		
 		zBeginning = new double[dictionary.getNbBasic() + dictionary.getNbNonBasic()];
-		for (int j = 0; j < dictionary.getNbNonBasic(); j++)  zBeginning[j] = dictionary.getD()[0][j + 1];
-		z0Beginning = dictionary.getD()[0][0];		
+		for (int j = 0; j < dictionary.getNbNonBasic(); j++)  zBeginning[j] = dictionary.getCoefficient(0, j + 1);
+		z0Beginning = dictionary.getCoefficient(0, 0);		
 		bBeginning = new double[dictionary.getNbBasic()];
-		for (int i = 0; i < dictionary.getNbBasic(); i++)  bBeginning[i] = dictionary.getD()[i + 1][0];
+		for (int i = 0; i < dictionary.getNbBasic(); i++)  bBeginning[i] = dictionary.getCoefficient(i + 1, 0);
 	} 
 
 	public void memorizeZ() {
 		initialNonBasicVar = new int[dictionary.getNbNonBasic() + 1];
 		zInitial = new double[dictionary.getNbNonBasic() + 1];
 		for (int j = 1; j <= dictionary.getNbNonBasic(); j++) {
-			zInitial[j] = dictionary.getD()[0][j];
+			zInitial[j] = dictionary.getCoefficient(0, j);
 			initialNonBasicVar[j] = dictionary.getNonBasicVar()[j];
 		}
-		z0Initial = dictionary.getD()[0][0];
+		z0Initial = dictionary.getCoefficient(0, 0);
 	}
 
 	public void computeABeginning() {
@@ -55,7 +70,7 @@ public class Simplex implements Runnable {
 
 		for (int i = 0; i < dictionary.getNbBasic(); i++) 
 			for (int j = 0; j < dictionary.getNbNonBasic(); j++)
-				ABeginning.setValue(i, j, -dictionary.getD()[i + 1][j + 1]);
+				ABeginning.setValue(i, j, -dictionary.getCoefficient(i + 1, j + 1));
 		for (int i = 0; i < dictionary.getNbBasic(); i++) {
 			for (int j = dictionary.getNbNonBasic(); j < dictionary.getNbNonBasic() + dictionary.getNbBasic(); j++)
 				ABeginning.setValue(i, j, 0);
@@ -63,6 +78,175 @@ public class Simplex implements Runnable {
 		}
 	}
 
+	/**
+	 * @return the revised simplex method for the chosen problem, starting from the basis of
+	 * the slack variables, which must be feasible
+	 */
+	public RevisedSimplex revisedSimplex() {
+		return new RevisedSimplex(ABeginning, bBeginning, zBeginning, z0Beginning, context);
+	}
+
+	/**
+	 * Looks for a feasible basis by a triangular crash (see Crash.triangularBasis).
+	 * @return the dictionary of this basis if it is feasible, null otherwise
+	 */
+	public Dictionary crashDictionary() {
+		ArrayList<Integer> base = Crash.triangularBasis(ABeginning, bBeginning);
+		ArrayList<Integer> columns = new ArrayList<Integer>();
+		int n = dictionary.getNbNonBasic();
+		boolean crashed = false;
+		for (int num : base) {
+			columns.add(num - 1);
+			if (num <= n) crashed = true;
+		}
+		if (!crashed) return null;
+		Matrix B = ABeginning.extract(columns);
+		double[] x = B.getLU().solve(bBeginning);
+		double tolerance = context.getPrimalTolerance();
+		for (int i = 0; i < x.length; i++)
+			if (x[i] < -tolerance || x[i] > dictionary.getUpperBound(base.get(i)) + tolerance) {
+				context.getListener().message("The crash basis " + base + " is not feasible\n");
+				return null;
+			}
+		context.getListener().message("Crash basis: " + base);
+		return dictionaryOfBasis(base, B);
+	}
+
+	// the dictionary of a basis of the problem, with the bounds and the settings of the current dictionary
+	private Dictionary dictionaryOfBasis(ArrayList<Integer> base, Matrix B) {
+		Dictionary dict = new Dictionary(ABeginning, B, base, bBeginning, zBeginning, z0Beginning);
+		dict.copyBounds(dictionary, false);
+		dict.copySettings(dictionary);
+		dict.setMethod(dictionary.getMethod());
+		dict.bland = dictionary.isBland();
+		return dict;
+	}
+
+	/**
+	 * @return the basis of the current dictionary, to start a later resolution from it;
+	 * null during the first phase
+	 */
+	public Basis getBasis() {
+		if (dictionary.basicIndex(0) != 0 || dictionary.nonBasicIndex(0) != 0) return null;
+		return new Basis(dictionary);
+	}
+
+	/**
+	 * Starts the resolution of the chosen problem again from a saved basis (warm start).
+	 * If the dictionary of the basis is feasible, the second phase follows; if it is only dual feasible,
+	 * the dual simplex method restores the feasibility. Otherwise the basis is not used.
+	 * @return true if the basis is used
+	 */
+	public boolean warmStart(Basis basis) {
+		int m = ABeginning.getNbRows(), n = ABeginning.getNbColumns() - m;
+		ArrayList<Integer> base = basis.getBasicVariables();
+		ArrayList<Integer> columns = new ArrayList<Integer>();
+		boolean valid = basis.getNbVariables() == n && base.size() == m;
+		for (int num : base) {
+			if (num < 1 || num > n + m || columns.contains(num - 1)) valid = false;
+			columns.add(num - 1);
+		}
+		Matrix B = valid ? ABeginning.extract(columns) : null;
+		if (!valid || !B.getLU().isNonsingular()) {
+			context.getListener().message("This is not a basis of the problem");
+			return false;
+		}
+		Dictionary dict = dictionaryOfBasis(base, B);
+		for (int num : basis.getAtUpper()) {
+			int j = dict.nonBasicIndex(num);
+			if (j != 0 && dict.getUpperBound(num) != Double.POSITIVE_INFINITY) dict.complementColumn(j);
+		}
+		context.getListener().message("Warm start from the " + basis);
+		if (dict.isFeasible()) {
+			context.getListener().message("The dictionary of the basis is feasible");
+			context.getListener().message("\nPHASE 2");
+		}
+		else if (dict.isDualFeasible()) {
+			context.getListener().message("The dictionary of the basis is dual feasible");
+			context.getListener().message("\nPHASE 2 (dual simplex)");
+			dict.setAlgorithm(SimplexAlgorithm.DUAL);
+		}
+		else {
+			context.getListener().message("The dictionary of the basis is neither feasible nor dual feasible: it is not used");
+			return false;
+		}
+		context.getListener().dictionary(dict);
+		dictionary = dict;
+		phase = 2;
+		if (view != null) view.activate();
+		return true;
+	}
+
+	/**
+	 * Builds the dictionary of a problem, after its presolve and its scaling if asked, with the
+	 * settings of this simplex method.
+	 * @return the dictionary, which becomes the current one
+	 */
+	public Dictionary load(Problem problem, boolean withPresolve, boolean withScaling) {
+		Presolve presolve = null;
+		Scaling scaling = null;
+		if (withPresolve) {
+			presolve = new Presolve(problem, context);
+			problem = presolve.reduce();
+			context.getListener().message(presolve.toString());
+		}
+		if (withScaling) {
+			scaling = new Scaling(problem);
+			problem = scaling.scale();
+			context.getListener().message(scaling.toString());
+		}
+		dictionary = new Dictionary(problem);
+		dictionary.setPresolve(presolve);
+		dictionary.setScaling(scaling);
+		dictionary.setPricingSegment(pricingSegment);
+		dictionary.setCandidateListSize(candidateListSize);
+		dictionary.setParallel(parallelPivot);
+		dictionary.setHarris(harris);
+		dictionary.setContext(context);
+		status = null;
+		return dictionary;
+	}
+
+	/**
+	 * Solves the problem of the current dictionary, just built by load, without window: the first
+	 * phase if the dictionary is not feasible, then the second phase. The resolution is stopped
+	 * by the limits of the context (see checkLimits).
+	 * @return the status of the resolution; the final dictionary is the current one, which gives the
+	 * basis and, in the second phase, the objective reached when a limit stops the resolution
+	 */
+	public SolveStatus solve() {
+		long start = System.nanoTime();
+		status = null;
+		context.getListener().dictionary(dictionary); // the starting dictionary, step 0 of a trace
+		if (dictionary.isFeasible()) phase = 2;
+		else {
+			memorizeZ();
+			phase = -1;
+		}
+		for (int step = 0; phase != 3; step++) {
+			SolveStatus limit = checkLimits(step, start);
+			if (limit != null) return status = limit;
+			oneStep();
+			if (dictionary.isIncomplete()) return status = SolveStatus.ERROR;
+		}
+		return status;
+	}
+
+	/**
+	 * Checked before each step: a volatile read and a reading of the clock, nothing next to a pivot.
+	 * @param step the number of steps already done
+	 * @param start the beginning of the resolution given by System.nanoTime
+	 * @return ITERATION_LIMIT, CANCELLED or TIME_LIMIT if the resolution must stop, null otherwise
+	 */
+	private SolveStatus checkLimits(int step, long start) {
+		if (step >= context.getMaxIterations()) return SolveStatus.ITERATION_LIMIT;
+		CancellationToken cancellation = context.getCancellation();
+		if (cancellation != null && cancellation.isCancelled()) return SolveStatus.CANCELLED;
+		long timeLimit = context.getTimeLimit();
+		if (timeLimit > 0 && System.nanoTime() - start >= timeLimit * 1000000L) return SolveStatus.TIME_LIMIT;
+		return null;
+	}
+
 	public Dictionary choiceDictionary() throws IOException {
 		File fichier = null;
 
@@ -70,55 +254,80 @@ public class Simplex implements Runnable {
 		if (dialogue.showOpenDialog(null)== JFileChooser.APPROVE_OPTION) {
 			fichier = dialogue.getSelectedFile();
 		}
-		else output.println("NoChoice");
+		else context.getListener().message("NoChoice");
 
-		dictionary = new Dictionary(fichier);
-		output.println("The chosen file is: " + fichier.getName() + "\n");
+		context.getListener().message("The chosen file is: " + fichier.getName() + "\n");
+		load(new Problem(fichier), controller.scenario.presolve.isSelected(), controller.scenario.scale.isSelected());
 		dictionary.setBland(controller.scenario.bland.isSelected());
 		if (controller.scenario.first.isSelected())
 				dictionary.setMethod(EnteringMethod.FIRST);
 		else if (controller.scenario.greatest.isSelected())
 			dictionary.setMethod(EnteringMethod.GREATEST);
+		else if (controller.scenario.steepestEdge.isSelected())
+			dictionary.setMethod(EnteringMethod.STEEPEST_EDGE);
+		else if (controller.scenario.devex.isSelected())
+			dictionary.setMethod(EnteringMethod.DEVEX);
 		else dictionary.setMethod(EnteringMethod.MORE_ADVANTAGEOUS);
-		output.displayDictionary(dictionary);
+		context.getListener().dictionary(dictionary);
+		memorizeBeginning();
 
 		boolean realisable = dictionary.isFeasible();
 		if (dictionary.isIncomplete()) return dictionary;
+		Dictionary crash = null;
+		if (!realisable && controller.scenario.crash.isSelected()) crash = crashDictionary();
 		if (realisable) {
 			controller.scenario.total.setEnabled(true);
-			output.println("The dictionary is feasible");
-			output.println("\nPHASE 2");
+			context.getListener().message("The dictionary is feasible");
+			context.getListener().message("\nPHASE 2");
+			phase = 2;
+		}
+		else if (controller.scenario.dual.isSelected() && dictionary.isDualFeasible()) {
+			controller.scenario.total.setEnabled(true);
+			context.getListener().message("The dictionary is not feasible but it is dual feasible");
+			context.getListener().message("\nPHASE 2 (dual simplex)");
+			dictionary.setAlgorithm(SimplexAlgorithm.DUAL);
+			phase = 2;
+		}
+		else if (crash != null) {
+			controller.scenario.total.setEnabled(true);
+			context.getListener().message("The dictionary of the crash basis is feasible: no need of the first phase");
+			context.getListener().message("\nPHASE 2");
+			setDico(crash);
+			context.getListener().dictionary(crash);
 			phase = 2;
 		}
 		else {
 			memorizeZ();
-			output.println("The dictionary is not feasible: search for a feasible dictionary");
-			output.println("\nPlease click on \"Perform a step\" to have a first dictionary of phase 1");
-			output.println("or try to have a dictionary that can be done by pivoting");
-			output.println("or trying another basis");
+			context.getListener().message("The dictionary is not feasible: search for a feasible dictionary");
+			context.getListener().message("\nPlease click on \"Perform a step\" to have a first dictionary of phase 1");
+			context.getListener().message("or try to have a dictionary that can be done by pivoting");
+			context.getListener().message("or trying another basis");
 			new Thread(controller).start();
 			phase = -1;
 		}
-		memorizeBeginning();
 		view.activate();
 		return dictionary;
 	}
 
 	public void oneStep() {
 		if (dictionary.isIncomplete()){
-			Simplex.output.println("Please complete your program");
+			context.getListener().message("Please complete your program");
 			return; 
 		}
 		switch (phase) {
 		case -1 :
-			Simplex.output.println("\nPHASE 1");
+			context.getListener().message("\nPHASE 1");
 			setDico(dictionary.firstAuxiliaryDictionaryPhase1());
-			view.total.setEnabled(true);
-			view.buttonBasis.setEnabled(false);
+			updateView(new Runnable() {
+				public void run() {
+					view.total.setEnabled(true);
+					view.buttonBasis.setEnabled(false);
+				}
+			});
 			phase = 0;
 			break;
 		case 0 : 
-			Simplex.output.println("\nWe compute a first feasible dictionary for phase 1");
+			context.getListener().message("\nWe compute a first feasible dictionary for phase 1");
 			dictionary.firstFeasibleDictionaryPhase1();
 			phase = 1;
 			break;
@@ -126,61 +335,163 @@ public class Simplex implements Runnable {
 			pivote();
 			if (dictionary.isIncomplete()) return; 
 			if (dictionary.isOptimal()) {
-				if (dictionary.getD()[0][0] < -Dictionary.epsilon) {
-					output.println("There is no feasible solution");
-					view.desactivate();
+				if (dictionary.getCoefficient(0, 0) < -context.getPrimalTolerance()) {
+					context.getListener().message("There is no feasible solution");
+					desactivateView();
 					phase = 3;
+					status = SolveStatus.INFEASIBLE;
 				}
 				else {
-					output.println("End of the first phase");
-					output.println("\nPHASE 2");
+					context.getListener().message("End of the first phase");
+					context.getListener().message("\nPHASE 2");
 					phase = 2;
-					controller.scenario.total.setEnabled(true);
 					dictionary = dictionary.initialDictionaryPhase2(zInitial, z0Initial, initialNonBasicVar);
-					view.buttonBasis.setEnabled(true);
+					updateView(new Runnable() {
+						public void run() {
+							view.total.setEnabled(true);
+							view.buttonBasis.setEnabled(true);
+						}
+					});
 				}
 			}
 			break;
 		case 2 :
 			pivote();
-			if (dictionary.isOptimal()) {
-				output.displaySolution(dictionary);
+			if (!dictionary.isFeasibleProblem()) {
+				context.getListener().message("There is no feasible solution");
 				phase = 3;
-				view.desactivate();
+				status = SolveStatus.INFEASIBLE;
+				desactivateView();
+			}
+			else if (dictionary.isOptimal() && dictionary.isFeasible()) {
+				context.getListener().solution(dictionary);
+				phase = 3;
+				status = SolveStatus.OPTIMAL;
+				desactivateView();
 			}
 			else if (!dictionary.isBorned()) {
-				output.println("Le probleme est non borne");
+				context.getListener().message("Le probleme est non borne");
 				phase = 3;
-				view.desactivate();
+				status = SolveStatus.UNBOUNDED;
+				desactivateView();
 			}
 			break;
 		}
 	}
 
+	public int getPricingSegment() {
+		return pricingSegment;
+	}
+
+	/**
+	 * @param pricingSegment the size of the segments of partial pricing for the next problems, 0 for full pricing
+	 */
+	public void setPricingSegment(int pricingSegment) {
+		this.pricingSegment = pricingSegment;
+	}
+
+	public int getCandidateListSize() {
+		return candidateListSize;
+	}
+
+	/**
+	 * @param candidateListSize the size of the candidate list of multiple pricing for the next problems, 0 to disable it
+	 */
+	public void setCandidateListSize(int candidateListSize) {
+		this.candidateListSize = candidateListSize;
+	}
+
+	public boolean isParallelPivot() {
+		return parallelPivot;
+	}
+
+	/**
+	 * @param parallelPivot true to share the pivots of the next problems between several threads
+	 */
+	public void setParallelPivot(boolean parallelPivot) {
+		this.parallelPivot = parallelPivot;
+	}
+
+	public SolverContext getContext() {
+		return context;
+	}
+
+	/**
+	 * @return how the resolution ended, null while it goes on
+	 */
+	public SolveStatus getStatus() {
+		return status;
+	}
+
+	public boolean isHarris() {
+		return harris;
+	}
+
+	/**
+	 * @param harris true to use the ratio test of Harris for the next problems
+	 */
+	public void setHarris(boolean harris) {
+		this.harris = harris;
+	}
+
 	public void pivote(){
-		if (!view.vE.getText().equals("")) {
-			int numE = Integer.parseInt(view.vE.getText());
+		if (chosenEntering != 0) {
+			int numE = chosenEntering;
+			chosenEntering = 0;
 			dictionary.oneStep(dictionary.nonBasicIndex(numE));
-			view.vE.setText("");
 		}
 		else {
 			dictionary.oneStep();
 		}
 	}
 
+	/**
+	 * @param numE the number of the entering variable of the next pivot, given by the user; 0 to let
+	 * the dictionary choose it
+	 */
+	public void setChosenEntering(int numE) {
+		chosenEntering = numE;
+	}
+
+	/*
+	 * The buttons are changed only for a step asked by the Event Dispatch Thread. oneStep is also called
+	 * by the SwingWorker of "Perform until the end", during which the buttons stay disabled: its done()
+	 * sets them at the end of the run.
+	 */
+	private void updateView(Runnable change) {
+		if (view != null && SwingUtilities.isEventDispatchThread()) change.run();
+	}
+
+	private void desactivateView() {
+		updateView(new Runnable() {
+			public void run() {
+				view.desactivate();
+			}
+		});
+	}
+
+	/**
+	 * Performs the steps until the end, or until a limit of the context stops the resolution (see
+	 * checkLimits); the cycles are broken by the dictionary (see SolverContext.setCycleMemory).
+	 */
 	public void run() {
-		while (phase != 3) {
+		long start = System.nanoTime();
+		for (int step = 0; phase != 3; step++) {
 			if (dictionary.isIncomplete()) {
-				Simplex.output.println("Please complete your program");
+				context.getListener().message("Please complete your program");
 				return; 
 			}
-			oneStep();
-			counter++;
-			if (counter == 100) {
-				output.println("Cela semble cycler, on arrete");
-				counter=0;
+			SolveStatus limit = checkLimits(step, start);
+			if (limit != null) {
+				status = limit;
+				if (limit == SolveStatus.ITERATION_LIMIT)
+					context.getListener().message("The limit of " + context.getMaxIterations() + " steps is reached");
+				else if (limit == SolveStatus.TIME_LIMIT)
+					context.getListener().message("The limit of " + context.getTimeLimit() + " ms is reached");
+				else context.getListener().message("The resolution is stopped");
 				return;
 			}
+			oneStep();
 		}
 	}
 
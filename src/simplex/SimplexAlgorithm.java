@@ -0,0 +1,10 @@
+package simplex;
+
+/** 
+ * Used to characterize the algorithm applied by Dictionary.oneStep:
+ * PRIMAL keeps the dictionary feasible and improves the objective,
+ * DUAL keeps the objective row optimal (dual feasible) and removes the infeasibilities
+ */
+public enum SimplexAlgorithm {
+		PRIMAL, DUAL;
+}
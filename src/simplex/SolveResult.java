@@ -0,0 +1,92 @@
+package simplex;
+
+/**
+ * Result of the resolution of one problem by BatchSolver, written as one line of the report:
+ * <br> name status objective iterations time [basis | message]
+ * <br> separated by tabulations; the time is in milliseconds. If a limit has stopped the resolution, the
+ * result is partial: the objective is the one reached in the second phase (NaN in the first phase) and
+ * the last column gives the last basis, the numbers of its variables separated by spaces (empty in the
+ * first phase while x0 is basic, the basis being then one of the auxiliary problem); the objective
+ * is NaN for the other statuses except OPTIMAL. After an error, the last column is its cause.
+ */
+public class SolveResult {
+	private String name; // the name of the file of the problem
+	private SolveStatus status;
+	private double objective;
+	private int iterations; // pivots and bound flips
+	private long time; // in nanoseconds
+	private String message; // the cause of an error, null otherwise
+	private int[] basis; // the numbers of the basic variables of the last dictionary, null after an error or if x0 is basic
+
+	public SolveResult(String name, SolveStatus status, double objective, int iterations, long time, int[] basis) {
+		this.name = name;
+		this.status = status;
+		this.objective = objective;
+		this.iterations = iterations;
+		this.time = time;
+		this.basis = basis;
+	}
+
+	/**
+	 * The result of a problem which could not be read or solved.
+	 */
+	public SolveResult(String name, String message, long time) {
+		this(name, SolveStatus.ERROR, Double.NaN, 0, time, null);
+		this.message = message;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public SolveStatus getStatus() {
+		return status;
+	}
+
+	public double getObjective() {
+		return objective;
+	}
+
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * @return the time of the resolution in nanoseconds
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * @return the numbers of the basic variables of the last dictionary (in the problem of the dictionary,
+	 * after the presolve), from index 0; null after an error, or in the first phase while x0 is basic
+	 */
+	public int[] getBasis() {
+		return basis;
+	}
+
+	/**
+	 * @return true if a limit or a cancellation has stopped the resolution before its end
+	 */
+	public boolean isPartial() {
+		return status.isLimit();
+	}
+
+	@Override
+	public String toString() {
+		String out = name + "\t" + status + "\t" + objective + "\t" + iterations + "\t"
+				+ String.format(java.util.Locale.ROOT, "%.3f", time / 1e6);
+		if (isPartial() && basis != null) {
+			StringBuilder numbers = new StringBuilder();
+			for (int num : basis) numbers.append(numbers.length() == 0 ? "" : " ").append(num);
+			out += "\t" + numbers;
+		}
+		if (message != null) out += "\t" + message;
+		return out;
+	}
+}
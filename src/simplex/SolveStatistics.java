@@ -0,0 +1,59 @@
+package simplex;
+
+/**
+ * Counters of a resolution, shared by the successive dictionaries of the two phases.
+ */
+public class SolveStatistics {
+	int nbPivots; // number of pivots
+	int nbBoundFlips; // number of steps where the entering variable only changed of bound
+	long nbPricedColumns; // number of coefficients of the objective row examined by the pricing
+	int nbMajorPricings; // number of scans which filled the candidate list (multiple pricing)
+	int pricingSegment; // size of the segments of partial pricing, 0 for full pricing
+	int candidateListSize; // size of the candidate list of multiple pricing, 0 if not used
+	int nbCycles; // number of bases met again, after which the Bland's rule has been applied
+
+	public int getNbPivots() {
+		return nbPivots;
+	}
+
+	public int getNbBoundFlips() {
+		return nbBoundFlips;
+	}
+
+	// returns the number of iterations: pivots and bound flips
+	public int getNbIterations() {
+		return nbPivots + nbBoundFlips;
+	}
+
+	public long getNbPricedColumns() {
+		return nbPricedColumns;
+	}
+
+	public int getNbMajorPricings() {
+		return nbMajorPricings;
+	}
+
+	public int getPricingSegment() {
+		return pricingSegment;
+	}
+
+	public int getCandidateListSize() {
+		return candidateListSize;
+	}
+
+	public int getNbCycles() {
+		return nbCycles;
+	}
+
+	@Override
+	public String toString() {
+		String out = "Iterations: " + getNbIterations() + " (" + nbPivots + " pivots, " + nbBoundFlips + " bound flips)\n";
+		out += "Priced columns: " + nbPricedColumns;
+		if (pricingSegment > 0) out += ", partial pricing by segments of " + pricingSegment;
+		else out += ", full pricing";
+		if (candidateListSize > 1)
+			out += "\nMultiple pricing: " + candidateListSize + " candidates, " + nbMajorPricings + " major scans";
+		if (nbCycles > 0) out += "\nCycles detected: " + nbCycles;
+		return out + "\n";
+	}
+}
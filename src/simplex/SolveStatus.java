@@ -0,0 +1,18 @@
+package simplex;
+
+/** 
+ * Used to characterize the end of a resolution:
+ * OPTIMAL if an optimal solution is found, INFEASIBLE and UNBOUNDED for the problems without one,
+ * ITERATION_LIMIT, TIME_LIMIT and CANCELLED if the resolution was stopped by a limit of its SolverContext
+ * or by its CancellationToken, ERROR if the problem could not be read or solved
+ */
+public enum SolveStatus {
+		OPTIMAL, INFEASIBLE, UNBOUNDED, ITERATION_LIMIT, TIME_LIMIT, CANCELLED, ERROR;
+
+		/**
+		 * @return true for the statuses of a resolution stopped before its end
+		 */
+		public boolean isLimit() {
+			return this == ITERATION_LIMIT || this == TIME_LIMIT || this == CANCELLED;
+		}
+}
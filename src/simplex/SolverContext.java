@@ -0,0 +1,118 @@
+package simplex;
+
+/**
+ * Settings of one resolution: the tolerances, the listener of its steps and its limits. The dictionaries
+ * of a resolution share the context of their Simplex (see Dictionary.copySettings); two resolutions
+ * with their own contexts can run at the same time in different threads, since neither Simplex nor
+ * Dictionary has static mutable state.
+ */
+public class SolverContext {
+	double primalTolerance = 1E-9; // infeasibility accepted on the values of the basic variables
+	double dualTolerance = 1E-9; // a coefficient of the objective must exceed it to be attractive
+	double pivotTolerance = 1E-9; // the coefficients smaller in absolute value are not used as pivots
+	private SolverListener listener = SolverListener.NONE; // receives the steps and the dictionaries
+	private int maxIterations = 100000; // Simplex.solve and Simplex.run stop after this number of steps
+	private int cycleMemory = 256; // number of bases kept to detect a cycle, 0 for no detection
+	private long timeLimit = 0; // in milliseconds from the beginning of Simplex.solve or Simplex.run, 0 for none
+	private CancellationToken cancellation; // null if the resolution cannot be cancelled
+
+	public SolverContext() {
+	}
+
+	/**
+	 * A context with the same settings, for another resolution.
+	 */
+	public SolverContext(SolverContext context) {
+		primalTolerance = context.primalTolerance;
+		dualTolerance = context.dualTolerance;
+		pivotTolerance = context.pivotTolerance;
+		listener = context.listener;
+		maxIterations = context.maxIterations;
+		cycleMemory = context.cycleMemory;
+		timeLimit = context.timeLimit;
+		cancellation = context.cancellation;
+	}
+
+	public double getPrimalTolerance() {
+		return primalTolerance;
+	}
+
+	public void setPrimalTolerance(double primalTolerance) {
+		this.primalTolerance = primalTolerance;
+	}
+
+	public double getDualTolerance() {
+		return dualTolerance;
+	}
+
+	public void setDualTolerance(double dualTolerance) {
+		this.dualTolerance = dualTolerance;
+	}
+
+	public double getPivotTolerance() {
+		return pivotTolerance;
+	}
+
+	public void setPivotTolerance(double pivotTolerance) {
+		this.pivotTolerance = pivotTolerance;
+	}
+
+	public SolverListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * @param listener receives the steps and the dictionaries of the resolution, SolverListener.NONE to ignore them
+	 */
+	public void setListener(SolverListener listener) {
+		this.listener = listener;
+	}
+
+	public int getMaxIterations() {
+		return maxIterations;
+	}
+
+	/**
+	 * @param maxIterations the number of steps after which Simplex.solve and Simplex.run stop the resolution
+	 */
+	public void setMaxIterations(int maxIterations) {
+		this.maxIterations = maxIterations;
+	}
+
+	public int getCycleMemory() {
+		return cycleMemory;
+	}
+
+	/**
+	 * @param cycleMemory the number of last bases of equal objective kept by the primal simplex: one of them
+	 * met again is a cycle, after which the Bland's rule is applied until the objective increases; 0 for
+	 * no detection
+	 */
+	public void setCycleMemory(int cycleMemory) {
+		this.cycleMemory = cycleMemory;
+	}
+
+	public long getTimeLimit() {
+		return timeLimit;
+	}
+
+	/**
+	 * @param timeLimit the time in milliseconds after which Simplex.solve and Simplex.run stop the
+	 * resolution, 0 for no limit; it is checked before each step
+	 */
+	public void setTimeLimit(long timeLimit) {
+		this.timeLimit = timeLimit;
+	}
+
+	public CancellationToken getCancellation() {
+		return cancellation;
+	}
+
+	/**
+	 * @param cancellation the token which stops the resolution when it is cancelled, null for none; it
+	 * is shared by the copies of this context
+	 */
+	public void setCancellation(CancellationToken cancellation) {
+		this.cancellation = cancellation;
+	}
+}
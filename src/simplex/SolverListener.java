@@ -0,0 +1,50 @@
+package simplex;
+
+/**
+ * Receives the events of a resolution, sent by Dictionary and Simplex in the thread which solves.
+ * Viewing displays them in the window; NONE, the listener by default of a dictionary, ignores them,
+ * so that a resolution without window neither formats nor allocates anything for them.
+ */
+public interface SolverListener {
+	/**
+	 * A message on the resolution: a new phase, an end, an error.
+	 */
+	void message(String text);
+
+	/**
+	 * The variable of number entering has replaced the variable of number leaving in the basis.
+	 */
+	void pivot(int entering, int leaving);
+
+	/**
+	 * The non-basic variable of number num has gone to its upper bound if toUpper, to its lower bound otherwise.
+	 */
+	void boundFlip(int num, boolean toUpper);
+
+	/**
+	 * A new dictionary, or the current one after a step.
+	 */
+	void dictionary(Dictionary dict);
+
+	/**
+	 * The optimal dictionary which ends the resolution.
+	 */
+	void solution(Dictionary dict);
+
+	SolverListener NONE = new SolverListener() {
+		public void message(String text) {
+		}
+
+		public void pivot(int entering, int leaving) {
+		}
+
+		public void boundFlip(int num, boolean toUpper) {
+		}
+
+		public void dictionary(Dictionary dict) {
+		}
+
+		public void solution(Dictionary dict) {
+		}
+	};
+}
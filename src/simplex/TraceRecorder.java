@@ -0,0 +1,192 @@
+package simplex;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Listener which records the steps of a resolution in a binary file, read by TraceViewer. Nothing is
+ * formatted: each step is encoded in a buffer of the thread which solves, and the full buffers are written
+ * by a background thread. The steps can be passed on to another listener (for instance the window).
+ * <br> The file begins with MAGIC, VERSION and the interval of the snapshots, then one record per step,
+ * from the starting dictionary of step 0; the dictionaries built without step (the ones of the first phase)
+ * have a record of kind DICTIONARY with the step of the previous record, and no snapshot if this step has one:
+ * <br> kind (byte), step (int), phase (byte), entering (int), leaving (int), objective (double),
+ * snapshot (byte 0 or 1)
+ * <br> and, for a snapshot, m and n (int), the m numbers of the basic variables, the n numbers of the
+ * non-basic variables (int, negative if complemented) and the (m + 1) x (n + 1) coefficients of the
+ * dictionary (double, row by row).
+ */
+public class TraceRecorder implements SolverListener {
+	static final int MAGIC = 0x53505854; // "SPXT"
+	static final int VERSION = 1;
+	static final byte DICTIONARY = 0; // a new dictionary, without step
+	static final byte PIVOT = 1;
+	static final byte BOUND_FLIP = 2;
+	static final byte SOLUTION = 3;
+	static final int HEADER_SIZE = 12;
+	static final int RECORD_SIZE = 1 + 4 + 1 + 4 + 4 + 8 + 1;
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final ByteBuffer END = ByteBuffer.allocate(0); // stops the writer
+
+	private SolverListener next; // receives the steps after the recorder
+	private int snapshotInterval; // a snapshot of the dictionary every snapshotInterval steps, 0 for none
+	private int step = 0;
+	private int snapshotStep = -1; // the step of the last snapshot: one snapshot at most per step
+	private byte kind = DICTIONARY; // the kind of the step announced by pivot or boundFlip
+	private int entering, leaving;
+	private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private BlockingQueue<ByteBuffer> full = new ArrayBlockingQueue<ByteBuffer>(16);
+	private BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<ByteBuffer>(16);
+	private Thread writer;
+	private volatile IOException error;
+
+	/**
+	 * @param file the file of the trace
+	 * @param snapshotInterval a snapshot of the dictionary is recorded every snapshotInterval steps, 0 for none
+	 * @param next receives the steps after the recorder, SolverListener.NONE if no other listener
+	 */
+	public TraceRecorder(File file, int snapshotInterval, SolverListener next) throws IOException {
+		this.snapshotInterval = snapshotInterval;
+		this.next = next;
+		final OutputStream output = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(snapshotInterval);
+		writer = new Thread(new Runnable() {
+			public void run() {
+				write(output);
+			}
+		}, "trace writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	// the loop of the background thread
+	private void write(OutputStream output) {
+		try {
+			while (true) {
+				ByteBuffer chunk = full.take();
+				if (chunk == END) break;
+				if (error == null) {
+					try {
+						output.write(chunk.array(), 0, chunk.position());
+					}
+					catch (IOException exc) {
+						error = exc;
+					}
+				}
+				chunk.clear();
+				if (chunk.capacity() == BUFFER_SIZE) free.offer(chunk);
+			}
+		}
+		catch (InterruptedException exc) {
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			try {
+				output.close();
+			}
+			catch (IOException exc) {
+				if (error == null) error = exc;
+			}
+		}
+	}
+
+	// hands the current buffer to the writer and takes a free one
+	private void flushBuffer() {
+		try {
+			full.put(buffer);
+		}
+		catch (InterruptedException exc) {
+			Thread.currentThread().interrupt();
+		}
+		buffer = free.poll();
+		if (buffer == null) buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	}
+
+	private void record(byte recordKind, Dictionary dict) {
+		boolean snapshot = snapshotInterval > 0 && step % snapshotInterval == 0 && step != snapshotStep;
+		if (snapshot) snapshotStep = step;
+		int m = dict.getNbBasic(), n = dict.getNbNonBasic();
+		int size = RECORD_SIZE + (snapshot ? 8 + 4 * (m + n) + 8 * (m + 1) * (n + 1) : 0);
+		if (buffer.remaining() < size) {
+			flushBuffer();
+			if (size > BUFFER_SIZE) buffer = ByteBuffer.allocate(size); // a large snapshot, not reused
+		}
+		boolean phase1 = dict.basicIndex(0) != 0 || dict.nonBasicIndex(0) != 0;
+		buffer.put(recordKind).putInt(step).put((byte) (phase1 ? 1 : 2)).putInt(entering).putInt(leaving)
+				.putDouble(dict.getCoefficient(0, 0)).put((byte) (snapshot ? 1 : 0));
+		if (snapshot) {
+			buffer.putInt(m).putInt(n);
+			for (int i = 1; i <= m; i++) buffer.putInt(dict.getBasicVar()[i]);
+			for (int j = 1; j <= n; j++) {
+				int num = dict.getNonBasicVar()[j];
+				buffer.putInt(dict.isComplemented(num) ? -num : num);
+			}
+			for (int i = 0; i <= m; i++)
+				for (int j = 0; j <= n; j++) buffer.putDouble(dict.getCoefficient(i, j));
+		}
+		if (size > BUFFER_SIZE) flushBuffer();
+	}
+
+	/**
+	 * Writes the last steps and closes the file.
+	 * @throws IOException if the trace could not be written
+	 */
+	public void close() throws IOException {
+		if (writer == null) return;
+		try {
+			full.put(buffer);
+			full.put(END);
+			writer.join();
+		}
+		catch (InterruptedException exc) {
+			Thread.currentThread().interrupt();
+		}
+		writer = null;
+		if (error != null) throw error;
+	}
+
+	/**
+	 * @return the number of steps recorded
+	 */
+	public int getNbSteps() {
+		return step;
+	}
+
+	public void message(String text) {
+		next.message(text);
+	}
+
+	public void pivot(int entering, int leaving) {
+		kind = PIVOT;
+		this.entering = entering;
+		this.leaving = leaving;
+		next.pivot(entering, leaving);
+	}
+
+	public void boundFlip(int num, boolean toUpper) {
+		kind = BOUND_FLIP;
+		entering = num;
+		leaving = toUpper ? 1 : 0;
+		next.boundFlip(num, toUpper);
+	}
+
+	public void dictionary(Dictionary dict) {
+		if (kind != DICTIONARY) step++;
+		record(kind, dict);
+		kind = DICTIONARY;
+		entering = 0;
+		leaving = 0;
+		next.dictionary(dict);
+	}
+
+	public void solution(Dictionary dict) {
+		record(SOLUTION, dict);
+		next.solution(dict);
+	}
+}
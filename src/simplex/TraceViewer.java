@@ -0,0 +1,144 @@
+package simplex;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Reading of a trace written by TraceRecorder. The file is scanned once to find the position of each
+ * record; a record is read and formatted only when it is asked, so that a trace of a long resolution
+ * can be looked at from any step.
+ * <br> Usage: java simplex.TraceViewer file [from [to]]
+ * <br> writes the records from "from" to "to" (numbers of records, from 0).
+ */
+public class TraceViewer {
+	private RandomAccessFile file;
+	private FileChannel channel;
+	private int snapshotInterval;
+	private long[] positions = new long[1024]; // of the records
+	private int size = 0;
+
+	public TraceViewer(File trace) throws IOException {
+		file = new RandomAccessFile(trace, "r");
+		channel = file.getChannel();
+		ByteBuffer header = read(0, TraceRecorder.HEADER_SIZE);
+		if (header.getInt() != TraceRecorder.MAGIC) throw new IOException(trace + " is not a trace");
+		int version = header.getInt();
+		if (version != TraceRecorder.VERSION) throw new IOException("Version " + version + " of trace not supported");
+		snapshotInterval = header.getInt();
+		long position = TraceRecorder.HEADER_SIZE, length = channel.size();
+		while (position + TraceRecorder.RECORD_SIZE <= length) {
+			if (size == positions.length) positions = Arrays.copyOf(positions, 2 * size);
+			positions[size++] = position;
+			ByteBuffer record = read(position, TraceRecorder.RECORD_SIZE);
+			position += TraceRecorder.RECORD_SIZE;
+			if (record.get(TraceRecorder.RECORD_SIZE - 1) != 0) {
+				if (position + 8 > length) { // truncated in the sizes of the snapshot
+					position = length + 1;
+					break;
+				}
+				ByteBuffer dims = read(position, 8);
+				int m = dims.getInt(), n = dims.getInt();
+				position += 8 + 4L * (m + n) + 8L * (m + 1) * (n + 1);
+			}
+		}
+		if (position > length) size--; // the last snapshot is truncated
+	}
+
+	private ByteBuffer read(long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining())
+			if (channel.read(buffer, position + buffer.position()) < 0) throw new IOException("End of the trace");
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * @return the number of records
+	 */
+	public int size() {
+		return size;
+	}
+
+	public int getSnapshotInterval() {
+		return snapshotInterval;
+	}
+
+	/**
+	 * @param k the number of the record, from 0
+	 * @return the objective of the dictionary after the step
+	 */
+	public double getObjective(int k) throws IOException {
+		return read(positions[k], TraceRecorder.RECORD_SIZE).getDouble(1 + 4 + 1 + 4 + 4);
+	}
+
+	/**
+	 * @param k the number of the record, from 0
+	 * @return the step and, if the record has a snapshot, the dictionary (see DictionarySnapshot.toString)
+	 */
+	public String format(int k) throws IOException {
+		ByteBuffer record = read(positions[k], TraceRecorder.RECORD_SIZE);
+		byte kind = record.get();
+		int step = record.getInt();
+		byte phase = record.get();
+		int entering = record.getInt(), leaving = record.getInt();
+		double objective = record.getDouble();
+		boolean snapshot = record.get() != 0;
+		StringBuilder out = new StringBuilder();
+		out.append("Step " + step + ", phase " + phase + ": ");
+		switch (kind) {
+		case TraceRecorder.PIVOT:
+			out.append("entering variable x" + entering + ", leaving variable x" + leaving);
+			break;
+		case TraceRecorder.BOUND_FLIP:
+			out.append("the variable x" + entering + " goes to its " + (leaving != 0 ? "upper" : "lower") + " bound");
+			break;
+		case TraceRecorder.SOLUTION:
+			out.append("solution");
+			break;
+		default:
+			out.append("dictionary");
+		}
+		out.append(String.format(", %c = %.2f\n", phase == 1 ? 'w' : 'z', objective));
+		if (snapshot) formatSnapshot(positions[k] + TraceRecorder.RECORD_SIZE, phase == 1, out);
+		return out.toString();
+	}
+
+	private void formatSnapshot(long position, boolean phase1, StringBuilder out) throws IOException {
+		ByteBuffer dims = read(position, 8);
+		int m = dims.getInt(), n = dims.getInt();
+		ByteBuffer data = read(position + 8, 4 * (m + n) + 8 * (m + 1) * (n + 1));
+		int[] basic = new int[m + 1], nonBasic = new int[n + 1];
+		boolean[] complemented = new boolean[n + 1];
+		boolean bounds = false;
+		for (int i = 1; i <= m; i++) basic[i] = data.getInt();
+		for (int j = 1; j <= n; j++) {
+			int num = data.getInt();
+			nonBasic[j] = Math.abs(num);
+			complemented[j] = num < 0;
+			bounds |= num < 0;
+		}
+		double[] coefficients = new double[(m + 1) * (n + 1)];
+		data.asDoubleBuffer().get(coefficients);
+		out.append(new DictionarySnapshot(basic, nonBasic, complemented, coefficients, phase1, bounds));
+	}
+
+	public void close() throws IOException {
+		file.close();
+	}
+
+	public static void main(String[] arg) throws IOException {
+		TraceViewer viewer = new TraceViewer(new File(arg[0]));
+		try {
+			int from = arg.length > 1 ? Integer.parseInt(arg[1]) : 0;
+			int to = arg.length > 2 ? Math.min(Integer.parseInt(arg[2]), viewer.size() - 1) : viewer.size() - 1;
+			for (int k = from; k <= to; k++) System.out.println(viewer.format(k));
+		}
+		finally {
+			viewer.close();
+		}
+	}
+}
@@ -1,136 +1,220 @@
 package simplex;
 
 import java.awt.Font;
-import java.awt.Point;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+import javax.swing.JLabel;
 import javax.swing.JScrollPane;
+import javax.swing.JTable;
 import javax.swing.JTextArea;
+import javax.swing.Timer;
+import javax.swing.table.TableColumnModel;
 
-
-public class Viewing extends JTextArea implements Runnable {
+/**
+ * The text of a resolution in the window. The solver does not touch the components: its messages, its
+ * steps and a mark for each dictionary are put in a queue without lock, which a timer of the Event
+ * Dispatch Thread empties every FRAME_DELAY milliseconds. Only the copy of the last dictionary
+ * (DictionarySnapshot) is published, in an AtomicReference: a copy not taken by the window is filled
+ * again by the next dictionary, so that at most three copies exist whatever the number of steps of a
+ * frame. Of the dictionaries of one frame, only the last one is written, with its step; the other ones
+ * are only counted in the label of the counters.
+ * <br> The last dictionary is also shown in tableau, a JTable which formats only the cells in view; a
+ * dictionary of more than TEXT_LIMIT coefficients is shown only there.
+ */
+public class Viewing extends JTextArea implements SolverListener {
 	private static final long serialVersionUID = 1L;
+	static final int FRAME_DELAY = 40; // milliseconds between two updates of the window, 25 per second
+	static final int TEXT_LIMIT = 10000; // the greatest number of coefficients of a dictionary written as text
 	JScrollPane scroll;
-	boolean toDo;
+	JLabel counters = new JLabel(" "); // steps, bound flips and objective of the resolution
+	DictionaryTableModel model = new DictionaryTableModel();
+	JTable tableau = new JTable(model); // the last dictionary
+	private ConcurrentLinkedQueue<Object> events = new ConcurrentLinkedQueue<Object>(); // String, Step or Mark
+	private AtomicReference<DictionarySnapshot> latest = new AtomicReference<DictionarySnapshot>(); // not taken yet
+	private AtomicReference<DictionarySnapshot> free = new AtomicReference<DictionarySnapshot>(); // to fill again
+	private int sequence = 0; // of the dictionaries, used by the solver only
+	private AtomicInteger nbPivots = new AtomicInteger();
+	private AtomicInteger nbBoundFlips = new AtomicInteger();
+	private int nbDictionaries = 0; // the fields below are used by the Event Dispatch Thread only
+	private int nbSkipped = 0; // dictionaries not written
+	private double objective = Double.NaN;
+	private boolean phase1 = false;
+
+	// the text of a pivot or of a bound flip, written only with the dictionary which follows it
+	private static class Step {
+		String text;
+
+		Step(String text) {
+			this.text = text;
+		}
+	}
+
+	// the place of a dictionary among the messages
+	private static class Mark {
+		int sequence;
+
+		Mark(int sequence) {
+			this.sequence = sequence;
+		}
+	}
 
 	public Viewing() {
 		super(35, 100);
 		setFont(new Font("Courier New", Font.BOLD, 16));
 		scroll = new JScrollPane(this);
 		setEditable(false);
-		new Thread(this).start();
+		tableau.setAutoResizeMode(JTable.AUTO_RESIZE_OFF); // a scroll bar rather than thin columns
+		tableau.setFont(new Font("Courier New", Font.PLAIN, 14));
+		new Timer(FRAME_DELAY, new ActionListener() {
+			public void actionPerformed(ActionEvent evt) {
+				update();
+			}
+		}).start();
 	}
 
+	/**
+	 * Can be called by any thread: the text is written at the next frame.
+	 */
 	public void print(String s) {
-		append(s);
-		int height = getHeight();
-		scroll.getViewport().setViewPosition(new Point(0, height));
+		events.add(s);
 	}
 
-	synchronized public void println(String s) {
-		append(s + "\n");
-		int height = getHeight();
-		scroll.getViewport().setViewPosition(new Point(0, height));
+	public void println(String s) {
+		events.add(s + "\n");
 	}
 
 	public void println(Object obj) {
 		println(obj.toString());
 	}
 
-	synchronized public void displayDictionary(Dictionary dict) {		
-		char obj ='z';
-		if ((dict.basicIndex(0) != 0 ) || (dict.nonBasicIndex(0) != 0)) obj = 'w';
-		for (int i = 1; i <= dict.getNbBasic(); i++) {
-			append("x" + dict.getBasicVar()[i] + " = ");
-			if (Dictionary.isNull(dict.getD()[i][0]))
-				append(String.format("%6s", " "));
-			else append(String.format("%6.2f", dict.getD()[i][0]));
-			for (int j = 1; j <= dict.getNbNonBasic(); j++ ) {
-				if (Dictionary.isNull(dict.getD()[i][j]))
-					append(String.format("%11s", " "));
-				else {
-					if(dict.getD()[i][j] >=  0) {
-						append(" + ");
-						append(String.format("%5.2f", dict.getD()[i][j]));
-					}
-					else {
-						append(" - ");
-						append(String.format("%5.2f", -dict.getD()[i][j]));
-					}
-					append(" ");
-					append("x" + dict.getNonBasicVar()[j]);
-				}
-			}
-			append("\n");
-		}
-		append(obj + "  = ");
-		if (Dictionary.isNull(dict.getD()[0][0]))
-			append(String.format("%6s", " "));
-		else
-			append(String.format("%6.2f", dict.getD()[0][0]));
-		for (int j = 1; j <= dict.getNbNonBasic(); j++ ){
-			if (Dictionary.isNull(dict.getD()[0][j]))
-				append(String.format("%11s", " "));
-			else {
-				if(dict.getD()[0][j] >=  0) {
-					append(" + ");
-					append(String.format("%5.2f", dict.getD()[0][j]));
-				}
-				else {
-					append(" - ");
-					append(String.format("%5.2f", -dict.getD()[0][j]));
-				}
-				append(" ");
-				append("x" + dict.getNonBasicVar()[j]);
-			}
-		}
-		append("\n");
-		toDo = true;
-		notify();
+	/**
+	 * Clears the text, the events not written yet and the counters; called by the Event Dispatch Thread.
+	 */
+	public void clear() {
+		events.clear();
+		latest.set(null);
+		nbPivots.set(0);
+		nbBoundFlips.set(0);
+		nbDictionaries = 0;
+		nbSkipped = 0;
+		objective = Double.NaN;
+		model.setSnapshot(null);
+		setText("");
+		counters.setText(" ");
+	}
+
+	public void message(String text) {
+		println(text);
+	}
+
+	public void pivot(int entering, int leaving) {
+		nbPivots.incrementAndGet();
+		events.add(new Step("\nEntering variable: x" + entering + "\nLeaving variable : x" + leaving + "\n"));
+	}
+
+	public void boundFlip(int num, boolean toUpper) {
+		nbBoundFlips.incrementAndGet();
+		events.add(new Step("\nThe variable x" + num + " goes to its " + (toUpper ? "upper" : "lower") + " bound\n"));
+	}
+
+	public void dictionary(Dictionary dict) {
+		displayDictionary(dict);
+	}
+
+	public void solution(Dictionary dict) {
+		displaySolution(dict);
+	}
+
+	/**
+	 * Called by the thread which solves. The mark is put in the queue before the copy is published, so
+	 * that the window which takes a copy has its mark.
+	 */
+	public void displayDictionary(Dictionary dict) {
+		DictionarySnapshot snapshot = free.getAndSet(null);
+		if (snapshot == null) snapshot = new DictionarySnapshot(dict);
+		else snapshot.copy(dict);
+		snapshot.sequence = ++sequence;
+		events.add(new Mark(snapshot.sequence));
+		DictionarySnapshot replaced = latest.getAndSet(snapshot);
+		if (replaced != null) free.set(replaced); // never seen by the window
 	}
 
 	/**
 	 * Displays the solution of the problem; is used if the dictionary is optimal.
 	 */
-	synchronized public void displaySolution(Dictionary dico) {
-
-		double[] solution = new double[dico.getNbNonBasic() + dico.getNbBasic() + 1];
-		for(int j = 1; j <= dico.getNbNonBasic(); j++) solution[dico.getNonBasicVar()[j]] = 0;
-		for(int i = 1; i <= dico.getNbBasic(); i++) solution[dico.getBasicVar()[i]] = dico.getD()[i][0];
-		append("\nThe optimal solution is obtained for: \n");
-		for (int i = 1; i <= dico.getNbNonBasic(); i++) {
-			append("x" + i + " = ");
-			append(String.format("%.2f\n", solution[i]));
-		}
+	public void displaySolution(Dictionary dico) {
+		StringBuilder out = new StringBuilder();
+		double[] solution = dico.getSolution();
+		int n = dico.getNbDecisionVariables();
+		out.append("\nThe optimal solution is obtained for: \n");
+		for (int i = 1; i <= n; i++) out.append("x" + i + " = " + String.format("%.2f\n", solution[i]));
+		out.append("The slack variables are equal to: \n");
+		for (int i = n + 1; i < solution.length; i++) out.append("x" + i + " = " + String.format("%.2f\n", solution[i]));
+		out.append("The optimal value of the objective function is: ");
+		out.append(String.format("%.2f\n", dico.getCoefficient(0, 0)));
+		out.append(new Sensitivity(dico).toString());
+		out.append(dico.getStatistics().toString());
+		events.add(out.toString());
+	}
 
-		println("The slack variables are equal to: ");
-		for (int i = dico.getNbNonBasic() + 1; i <= dico.getNbNonBasic() + dico.getNbBasic(); i++) {
-			append("x" + i + " = ");
-			append(String.format("%.2f\n", solution[i]));
+	/*
+	 * One frame, on the Event Dispatch Thread: the last copy is taken, then the events until its mark;
+	 * without copy, the events until the first mark, whose copy is not yet published. The messages are
+	 * all written, but only the last dictionary and the steps which lead to it from the previous one.
+	 */
+	private void update() {
+		if (events.isEmpty()) return;
+		DictionarySnapshot last = latest.getAndSet(null);
+		ArrayList<Object> frame = new ArrayList<Object>();
+		for (Object event = events.peek(); event != null; event = events.peek()) {
+			if (event instanceof Mark && last == null) break;
+			frame.add(events.poll());
+			if (event instanceof Mark && ((Mark) event).sequence == last.sequence) break;
 		}
-		append("The optimal value of the objective function is: ");
-		append(String.format("%.2f\n", dico.getD()[0][0]));
-		toDo = true;
-		notifyAll();
-	}
-
-	synchronized public void run() {
-		while (true) {
-			try {
-				while (!toDo) wait();	
-				Thread.sleep(10);
-				int hauteur = getHeight();
-				if (scroll.getViewport().getHeight() > getLineCount() * getRowHeight()) {
-					scroll.getViewport().setViewPosition(new Point(0, 0));
-				}
+		int previous = -1, skipped = -1; // the mark before the last one of the frame
+		for (int k = 0; k < frame.size(); k++)
+			if (frame.get(k) instanceof Mark) {
+				if (k < frame.size() - 1) previous = k; // the last event is the mark of the copy taken
+				skipped++;
+			}
+		StringBuilder out = new StringBuilder();
+		for (int k = 0; k < frame.size(); k++) {
+			Object event = frame.get(k);
+			if (k == previous + 1 && skipped > 0) out.append("\n(" + skipped + " dictionaries not displayed)\n");
+			if (event instanceof Mark) {
+				nbDictionaries++;
+				if (((Mark) event).sequence != last.sequence) nbSkipped++;
 				else {
-					scroll.getViewport().setViewPosition(new Point(0, hauteur));
-					append("\n");
+					objective = last.getObjective();
+					phase1 = last.isPhase1();
+					if ((long) (last.getNbBasic() + 1) * (last.getNbNonBasic() + 1) <= TEXT_LIMIT) out.append(last);
+					else out.append("Dictionary of " + last.getNbBasic() + " basic variables and "
+							+ last.getNbNonBasic() + " non-basic variables: see the tableau\n");
+					showTableau(last);
 				}
-				toDo = false;
 			}
-			catch (Exception exc) {
-				exc.printStackTrace();
+			else if (event instanceof Step) {
+				if (k > previous) out.append(((Step) event).text);
 			}
+			else out.append((String) event);
 		}
+		append(out.toString());
+		setCaretPosition(getDocument().getLength());
+		counters.setText(String.format("Steps: %d   Bound flips: %d   Dictionaries: %d (%d not displayed)   %c = %.2f",
+				nbPivots.get(), nbBoundFlips.get(), nbDictionaries, nbSkipped, phase1 ? 'w' : 'z', objective));
+	}
+
+	// the names of the non-basic variables change at each step: the headers are given again
+	private void showTableau(DictionarySnapshot snapshot) {
+		model.setSnapshot(snapshot);
+		TableColumnModel columns = tableau.getColumnModel();
+		for (int c = 0; c < columns.getColumnCount(); c++)
+			columns.getColumn(c).setHeaderValue(model.getColumnName(columns.getColumn(c).getModelIndex()));
+		tableau.getTableHeader().repaint();
 	}
 }